@@ -0,0 +1,117 @@
+package many_utils.excelModule.bench;
+
+import many_utils.ExcelUtils;
+import many_utils.excelModule.ColumnarSheet;
+import many_utils.excelModule.ExcelPOIReaderUtil;
+import many_utils.excelModule.ExcelReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各 Excel 读取方式的基准测试，同一份合成工作簿分别用每种方式完整读取一遍
+ * <p>
+ * 构建与运行：
+ * <pre>
+ * mvn -Pjmh -DskipTests package
+ * java -jar target/benchmarks.jar ExcelReaderBenchmark -prof gc -prof many_utils.excelModule.bench.PeakHeapProfiler
+ * # 调整工作簿参数
+ * java -jar target/benchmarks.jar ExcelReaderBenchmark -p rows=100000 -p mergedDensity=0.05
+ * </pre>
+ * 吞吐量为每秒完整读取的次数；{@code -prof gc} 给出分配速率（gc.alloc.rate.norm 为每次读取分配的字节数），
+ * {@link PeakHeapProfiler} 给出每轮迭代的堆峰值。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ExcelReaderBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"20"})
+    public int columns;
+
+    @Param({"0.01"})
+    public double mergedDensity;
+
+    @Param({"0.8"})
+    public double sharedStringRatio;
+
+    @Param({"0.1"})
+    public double dateRatio;
+
+    @Param({"0.1"})
+    public double formulaRatio;
+
+    /**
+     * 生成的工作簿缓存目录，可用 -Dbench.dir 指定
+     */
+    private static final Path WORKBOOK_DIR = Paths.get(System.getProperty("bench.dir", "target/jmh-workbooks"));
+
+    private String filePath;
+    // ExcelReader.readExcel 逐行打印内容，输出到这里丢弃，只测量读取本身
+    private PrintStream discard;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        WorkbookGenerator.Spec spec = new WorkbookGenerator.Spec(rows, columns, mergedDensity, sharedStringRatio,
+                dateRatio, formulaRatio, 42L);
+        filePath = WorkbookGenerator.generate(spec, WORKBOOK_DIR).toAbsolutePath().toString();
+        discard = new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        });
+    }
+
+    @Benchmark
+    public void excelReader() {
+        ExcelReader.readExcel(filePath, discard);
+    }
+
+    @Benchmark
+    public List<List<String>> readSheetWithMerge() throws IOException {
+        return ExcelPOIReaderUtil.readExcelWithMerge(filePath, 0);
+    }
+
+    @Benchmark
+    public ColumnarSheet readColumnar() throws IOException {
+        return ExcelPOIReaderUtil.readExcelColumnar(filePath, 0);
+    }
+
+    @Benchmark
+    public void readStreaming(Blackhole blackhole) throws IOException {
+        ExcelPOIReaderUtil.readExcelWithMergeStreaming(filePath, 0, (rowIndex, rowData) -> blackhole.consume(rowData));
+    }
+
+    @Benchmark
+    public void readEasyExcel(Blackhole blackhole) {
+        ExcelUtils.readWithMerge(filePath, 0, ExcelUtils.DEFAULT_WINDOW_SIZE, (rowIndex, rowData) -> blackhole.consume(rowData));
+    }
+}
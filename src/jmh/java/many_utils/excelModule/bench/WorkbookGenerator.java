@@ -0,0 +1,171 @@
+package many_utils.excelModule.bench;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * 基准测试用的合成工作簿生成器，基于 SXSSF 逐行写出，内存占用与行数无关
+ * <p>
+ * 同样的参数和随机种子总是生成同样的内容；生成的文件按参数命名缓存在目录中，多次运行（多个 fork）复用同一文件。
+ */
+public final class WorkbookGenerator {
+
+    /**
+     * 共享字符串池大小：重复出现的字符串从池中选取
+     */
+    private static final int STRING_POOL_SIZE = 100;
+
+    private WorkbookGenerator() {
+    }
+
+    /**
+     * 生成参数
+     */
+    public static final class Spec {
+        final int rows;
+        final int columns;
+        final double mergedDensity;
+        final double sharedStringRatio;
+        final double dateRatio;
+        final double formulaRatio;
+        final long seed;
+
+        /**
+         * @param rows              行数
+         * @param columns           列数
+         * @param mergedDensity     每行开始一个合并区域的概率
+         * @param sharedStringRatio 字符串单元格取自共享字符串池（重复值）的比例，其余为唯一值
+         * @param dateRatio         日期单元格比例
+         * @param formulaRatio      公式单元格比例（带缓存结果）
+         * @param seed              随机种子
+         */
+        public Spec(int rows, int columns, double mergedDensity, double sharedStringRatio,
+                    double dateRatio, double formulaRatio, long seed) {
+            if (rows <= 0 || columns < 2) {
+                throw new IllegalArgumentException("行数必须大于0，列数至少为2: rows=" + rows + ", columns=" + columns);
+            }
+            if (dateRatio + formulaRatio > 1) {
+                throw new IllegalArgumentException("日期与公式比例之和不能超过1");
+            }
+            this.rows = rows;
+            this.columns = columns;
+            this.mergedDensity = mergedDensity;
+            this.sharedStringRatio = sharedStringRatio;
+            this.dateRatio = dateRatio;
+            this.formulaRatio = formulaRatio;
+            this.seed = seed;
+        }
+
+        String fileName() {
+            return String.format(Locale.ROOT, "wb-r%d-c%d-m%.4f-s%.2f-d%.2f-f%.2f-%d.xlsx",
+                    rows, columns, mergedDensity, sharedStringRatio, dateRatio, formulaRatio, seed);
+        }
+
+        @Override
+        public String toString() {
+            return fileName();
+        }
+    }
+
+    /**
+     * 生成工作簿，目录中已有同参数的文件时直接返回
+     *
+     * @param spec 生成参数
+     * @param dir  输出目录
+     * @return 工作簿文件
+     * @throws IOException 写入异常
+     */
+    public static Path generate(Spec spec, Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Path file = dir.resolve(spec.fileName());
+        if (Files.isRegularFile(file)) {
+            return file;
+        }
+        // 先写临时文件再改名，并发生成时不会读到写了一半的文件
+        Path tmp = Files.createTempFile(dir, "wb-", ".tmp");
+        try {
+            write(spec, tmp);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return file;
+    }
+
+    private static void write(Spec spec, Path file) throws IOException {
+        Random random = new Random(spec.seed);
+        SXSSFWorkbook workbook = new SXSSFWorkbook(null, 200, true, true);
+        try {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+            Sheet sheet = workbook.createSheet("data");
+
+            // 每列被合并区域占用到的行号（不含），用于避免区域重叠
+            int[] occupiedUntil = new int[spec.columns];
+            long baseTime = 1577836800000L;
+
+            for (int r = 0; r < spec.rows; r++) {
+                Row row = sheet.createRow(r);
+                for (int c = 0; c < spec.columns; c++) {
+                    Cell cell = row.createCell(c);
+                    double kind = random.nextDouble();
+                    if (kind < spec.dateRatio) {
+                        cell.setCellValue(new Date(baseTime + random.nextInt(1000 * 24) * 3600000L));
+                        cell.setCellStyle(dateStyle);
+                    } else if (kind < spec.dateRatio + spec.formulaRatio && c > 0) {
+                        // 引用同一行左侧单元格，写入缓存结果，读取时无需计算
+                        double operand = random.nextInt(10000);
+                        cell.setCellFormula(new CellReference(r, c - 1).formatAsString() + "*0+" + (long) operand);
+                        cell.setCellValue(operand);
+                    } else if (c % 2 == 0) {
+                        cell.setCellValue(random.nextDouble() < spec.sharedStringRatio
+                                ? "类别" + random.nextInt(STRING_POOL_SIZE)
+                                : "值" + r + "_" + c);
+                    } else {
+                        cell.setCellValue(Math.round(random.nextDouble() * 1_000_000) / 100.0);
+                    }
+                }
+
+                if (random.nextDouble() < spec.mergedDensity) {
+                    int height = 1 + random.nextInt(3);
+                    int width = 1 + random.nextInt(3);
+                    int firstCol = random.nextInt(spec.columns - 1);
+                    int lastCol = Math.min(spec.columns - 1, firstCol + width);
+                    int lastRow = Math.min(spec.rows - 1, r + height - 1);
+                    boolean free = true;
+                    for (int c = firstCol; c <= lastCol; c++) {
+                        free &= occupiedUntil[c] <= r;
+                    }
+                    if (free && (lastRow > r || lastCol > firstCol)) {
+                        // 已保证不重叠，跳过逐个区域的重叠校验
+                        sheet.addMergedRegionUnsafe(new CellRangeAddress(r, lastRow, firstCol, lastCol));
+                        for (int c = firstCol; c <= lastCol; c++) {
+                            occupiedUntil[c] = lastRow + 1;
+                        }
+                    }
+                }
+            }
+
+            try (OutputStream out = Files.newOutputStream(file)) {
+                workbook.write(out);
+            }
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package many_utils.primitive.bench;
+
+import many_utils.CollectionUtils;
+import many_utils.primitive.IntArrayList;
+import many_utils.primitive.IntHashSet;
+import many_utils.primitive.IntIntMap;
+import many_utils.primitive.LongHashSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基本类型集合与装箱集合的对比，每组用同一份随机数据分别执行一遍
+ * <p>
+ * 构建与运行：
+ * <pre>
+ * mvn -Pjmh -DskipTests package
+ * java -jar target/benchmarks.jar PrimitiveCollectionsBenchmark -prof gc
+ * # 调整数据规模和取值范围（范围越小重复越多）
+ * java -jar target/benchmarks.jar PrimitiveCollectionsBenchmark -p size=100000 -p range=50000
+ * </pre>
+ * 结果为每次操作的平均耗时；{@code -prof gc} 的 gc.alloc.rate.norm 为每次操作分配的字节数，
+ * 可直接比较装箱带来的额外分配。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class PrimitiveCollectionsBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    /**
+     * 取值范围，超过 Integer 表示的缓存区间时装箱值都是新对象
+     */
+    @Param({"4000000"})
+    public int range;
+
+    private int[] values;
+    private int[] probes;
+    private long[] longValues;
+
+    private List<Integer> boxedList;
+    private IntArrayList primitiveList;
+    private Set<Integer> boxedSet;
+    private Set<Integer> boxedOther;
+    private IntHashSet primitiveSet;
+    private IntHashSet primitiveOther;
+    private Set<Long> boxedLongSet;
+    private LongHashSet primitiveLongSet;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42L);
+        values = new int[size];
+        probes = new int[size];
+        longValues = new long[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextInt(range);
+            probes[i] = random.nextInt(range);
+            longValues[i] = (long) values[i] * 1_000_003L;
+        }
+
+        boxedList = buildBoxedList();
+        primitiveList = buildPrimitiveList();
+        boxedSet = buildBoxedSet();
+        primitiveSet = buildPrimitiveSet();
+        boxedOther = new HashSet<>();
+        primitiveOther = new IntHashSet(size);
+        for (int v : probes) {
+            boxedOther.add(v);
+            primitiveOther.add(v);
+        }
+        boxedLongSet = buildBoxedLongSet();
+        primitiveLongSet = buildPrimitiveLongSet();
+    }
+
+    @Benchmark
+    public List<Integer> buildBoxedList() {
+        List<Integer> list = new ArrayList<>();
+        for (int v : values) {
+            list.add(v);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public IntArrayList buildPrimitiveList() {
+        IntArrayList list = new IntArrayList();
+        for (int v : values) {
+            list.add(v);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public long sumBoxedList() {
+        long sum = 0;
+        for (Integer v : boxedList) {
+            sum += v;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long sumPrimitiveList() {
+        long sum = 0;
+        for (int i = 0; i < primitiveList.size(); i++) {
+            sum += primitiveList.get(i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public Set<Integer> buildBoxedSet() {
+        Set<Integer> set = new HashSet<>();
+        for (int v : values) {
+            set.add(v);
+        }
+        return set;
+    }
+
+    @Benchmark
+    public IntHashSet buildPrimitiveSet() {
+        IntHashSet set = new IntHashSet();
+        for (int v : values) {
+            set.add(v);
+        }
+        return set;
+    }
+
+    @Benchmark
+    public int containsBoxedSet() {
+        int hits = 0;
+        for (int v : probes) {
+            if (boxedSet.contains(v)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int containsPrimitiveSet() {
+        int hits = 0;
+        for (int v : probes) {
+            if (primitiveSet.contains(v)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> countBoxedMap() {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int v : values) {
+            counts.merge(v % 1024, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    @Benchmark
+    public IntIntMap countPrimitiveMap() {
+        IntIntMap counts = new IntIntMap();
+        for (int v : values) {
+            counts.addTo(v % 1024, 1);
+        }
+        return counts;
+    }
+
+    @Benchmark
+    public Set<Integer> intersectBoxed() {
+        return CollectionUtils.intersect(boxedSet, boxedOther);
+    }
+
+    @Benchmark
+    public IntHashSet intersectPrimitive() {
+        return CollectionUtils.intersect(primitiveSet, primitiveOther);
+    }
+
+    @Benchmark
+    public Set<Long> buildBoxedLongSet() {
+        Set<Long> set = new HashSet<>();
+        for (long v : longValues) {
+            set.add(v);
+        }
+        return set;
+    }
+
+    @Benchmark
+    public LongHashSet buildPrimitiveLongSet() {
+        LongHashSet set = new LongHashSet();
+        for (long v : longValues) {
+            set.add(v);
+        }
+        return set;
+    }
+
+    @Benchmark
+    public int containsBoxedLongSet() {
+        int hits = 0;
+        for (long v : longValues) {
+            if (boxedLongSet.contains(v + 1)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int containsPrimitiveLongSet() {
+        int hits = 0;
+        for (long v : longValues) {
+            if (primitiveLongSet.contains(v + 1)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+}
@@ -1,12 +1,599 @@
 package many_utils;
 
 import com.alibaba.fastjson.JSON;
+import many_utils.primitive.IntHashSet;
+import many_utils.primitive.LongHashSet;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
+/**
+ * 集合运算：交集、并集、差集、对称差
+ * <p>
+ * 按输入的类型和大小选择算法：
+ * <ul>
+ *     <li>两边都是比较器相同的 SortedSet：顺序归并；大小相差悬殊时遍历小的一边、在大的一边按对数时间查找</li>
+ *     <li>两边都是取值范围不大的 Integer：用 BitSet 标记，不做哈希</li>
+ *     <li>其他：只对小的一边建哈希表，用大的一边探测；已经是 Set 的一边直接用它的 contains</li>
+ * </ul>
+ * 返回新的可修改集合，不修改输入；输入中的重复元素只保留一个。SortedSet 输入的结果为 TreeSet，按比较器排序；
+ * 其余为 LinkedHashSet，按第一个集合中的出现顺序，并集和对称差中第二个集合的元素排在后面。
+ * 元素的相等按 equals 判断，SortedSet 输入按比较器判断。
+ */
 public class CollectionUtils {
+
+    /**
+     * 大小相差超过这个倍数时，有序集合改为逐个查找
+     */
+    private static final int SORTED_SKEW_RATIO = 16;
+
+    /**
+     * 元素总数不少于这个值时才考虑 BitSet，小集合直接哈希
+     */
+    private static final int DENSE_MIN_SIZE = 64;
+
+    /**
+     * 取值范围不超过元素总数的这个倍数时使用 BitSet，此时 BitSet 每个元素最多占 8 字节，远小于哈希表的节点
+     */
+    private static final int DENSE_BITS_PER_ELEMENT = 64;
+
+    /**
+     * 并行版本在元素总数不少于这个值时才并行
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * 不是 Set 的 dest 超过这个大小时先建哈希表，避免逐个线性查找
+     */
+    private static final int LINEAR_LOOKUP_LIMIT = 16;
+
+    /**
+     * 并行查找表中代替 null 的元素
+     */
+    private static final Object NULL_KEY = new Object();
+
+    private enum Operation {
+        INTERSECT, UNION, DIFFERENCE, SYMMETRIC_DIFFERENCE
+    }
+
+    /**
+     * 就地求交集：从 source 中删除不在 dest 中的元素，source 中的重复元素保留
+     */
     public static <T> void intersection(Collection<T> source, Collection<T> dest) {
-        source.removeIf(t -> !dest.contains(t));
+        Collection<T> lookup = dest instanceof Set || dest.size() <= LINEAR_LOOKUP_LIMIT ? dest : new HashSet<>(dest);
+        source.removeIf(t -> !lookup.contains(t));
+    }
+
+    /**
+     * @return 同时在 a 和 b 中的元素
+     */
+    public static <T> Set<T> intersect(Collection<? extends T> a, Collection<? extends T> b) {
+        return apply(Operation.INTERSECT, a, b, false);
+    }
+
+    /**
+     * @return 在 a 或 b 中的元素
+     */
+    public static <T> Set<T> union(Collection<? extends T> a, Collection<? extends T> b) {
+        return apply(Operation.UNION, a, b, false);
+    }
+
+    /**
+     * @return 在 a 中、不在 b 中的元素
+     */
+    public static <T> Set<T> difference(Collection<? extends T> a, Collection<? extends T> b) {
+        return apply(Operation.DIFFERENCE, a, b, false);
+    }
+
+    /**
+     * @return 只在 a 和 b 其中一个中的元素
+     */
+    public static <T> Set<T> symmetricDifference(Collection<? extends T> a, Collection<? extends T> b) {
+        return apply(Operation.SYMMETRIC_DIFFERENCE, a, b, false);
+    }
+
+    /**
+     * {@link #intersect} 的并行版本：哈希探测在公共 ForkJoinPool 中并行，结果与顺序版本相同。
+     * 元素较少、有序或取值范围小时按顺序版本计算；输入在计算期间不能被修改，元素的 equals 和 hashCode 须线程安全
+     */
+    public static <T> Set<T> parallelIntersect(Collection<? extends T> a, Collection<? extends T> b) {
+        return apply(Operation.INTERSECT, a, b, true);
+    }
+
+    /**
+     * {@link #union} 的并行版本，条件同 {@link #parallelIntersect}
+     */
+    public static <T> Set<T> parallelUnion(Collection<? extends T> a, Collection<? extends T> b) {
+        return apply(Operation.UNION, a, b, true);
+    }
+
+    /**
+     * {@link #difference} 的并行版本，条件同 {@link #parallelIntersect}
+     */
+    public static <T> Set<T> parallelDifference(Collection<? extends T> a, Collection<? extends T> b) {
+        return apply(Operation.DIFFERENCE, a, b, true);
+    }
+
+    /**
+     * {@link #symmetricDifference} 的并行版本，条件同 {@link #parallelIntersect}
+     */
+    public static <T> Set<T> parallelSymmetricDifference(Collection<? extends T> a, Collection<? extends T> b) {
+        return apply(Operation.SYMMETRIC_DIFFERENCE, a, b, true);
+    }
+
+    // ---------------------------------------------------------------- 基本类型集合，结果为新集合，不装箱
+
+    public static IntHashSet intersect(IntHashSet a, IntHashSet b) {
+        IntHashSet small = a.size() <= b.size() ? a : b;
+        IntHashSet large = small == a ? b : a;
+        IntHashSet result = new IntHashSet(small.size());
+        small.forEach(v -> {
+            if (large.contains(v)) {
+                result.add(v);
+            }
+        });
+        return result;
+    }
+
+    public static IntHashSet union(IntHashSet a, IntHashSet b) {
+        IntHashSet result = new IntHashSet(a.size() + b.size());
+        a.forEach(result::add);
+        b.forEach(result::add);
+        return result;
+    }
+
+    public static IntHashSet difference(IntHashSet a, IntHashSet b) {
+        IntHashSet result = new IntHashSet(a.size());
+        a.forEach(v -> {
+            if (!b.contains(v)) {
+                result.add(v);
+            }
+        });
+        return result;
+    }
+
+    public static IntHashSet symmetricDifference(IntHashSet a, IntHashSet b) {
+        IntHashSet result = new IntHashSet(a.size() + b.size());
+        a.forEach(v -> {
+            if (!b.contains(v)) {
+                result.add(v);
+            }
+        });
+        b.forEach(v -> {
+            if (!a.contains(v)) {
+                result.add(v);
+            }
+        });
+        return result;
+    }
+
+    public static LongHashSet intersect(LongHashSet a, LongHashSet b) {
+        LongHashSet small = a.size() <= b.size() ? a : b;
+        LongHashSet large = small == a ? b : a;
+        LongHashSet result = new LongHashSet(small.size());
+        small.forEach(v -> {
+            if (large.contains(v)) {
+                result.add(v);
+            }
+        });
+        return result;
+    }
+
+    public static LongHashSet union(LongHashSet a, LongHashSet b) {
+        LongHashSet result = new LongHashSet(a.size() + b.size());
+        a.forEach(result::add);
+        b.forEach(result::add);
+        return result;
+    }
+
+    public static LongHashSet difference(LongHashSet a, LongHashSet b) {
+        LongHashSet result = new LongHashSet(a.size());
+        a.forEach(v -> {
+            if (!b.contains(v)) {
+                result.add(v);
+            }
+        });
+        return result;
+    }
+
+    public static LongHashSet symmetricDifference(LongHashSet a, LongHashSet b) {
+        LongHashSet result = new LongHashSet(a.size() + b.size());
+        a.forEach(v -> {
+            if (!b.contains(v)) {
+                result.add(v);
+            }
+        });
+        b.forEach(v -> {
+            if (!a.contains(v)) {
+                result.add(v);
+            }
+        });
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Set<T> apply(Operation op, Collection<? extends T> a, Collection<? extends T> b, boolean parallel) {
+        Objects.requireNonNull(a, "a");
+        Objects.requireNonNull(b, "b");
+        if (a instanceof SortedSet && b instanceof SortedSet
+                && Objects.equals(((SortedSet<?>) a).comparator(), ((SortedSet<?>) b).comparator())) {
+            return sorted(op, (SortedSet<T>) a, (SortedSet<T>) b);
+        }
+        int[] range = denseIntRange(a, b);
+        if (range != null) {
+            return (Set<T>) dense(op, (Collection<Integer>) a, (Collection<Integer>) b, range[0], range[1]);
+        }
+        if (parallel && (long) a.size() + b.size() >= PARALLEL_THRESHOLD) {
+            return parallelHash(op, a, b);
+        }
+        return hash(op, a, b);
+    }
+
+    // ---------------------------------------------------------------- 哈希
+
+    private static <T> Set<T> hash(Operation op, Collection<? extends T> a, Collection<? extends T> b) {
+        switch (op) {
+            case INTERSECT: {
+                Set<?> inB = membership(a, b);
+                Set<T> result = newSet(Math.min(a.size(), b.size()));
+                for (T t : a) {
+                    if (inB.contains(t)) {
+                        result.add(t);
+                    }
+                }
+                return result;
+            }
+            case DIFFERENCE: {
+                Set<?> inB = membership(a, b);
+                Set<T> result = newSet(a.size());
+                for (T t : a) {
+                    if (!inB.contains(t)) {
+                        result.add(t);
+                    }
+                }
+                return result;
+            }
+            case UNION: {
+                Set<T> result = newSet(a.size() + b.size());
+                result.addAll(a);
+                result.addAll(b);
+                return result;
+            }
+            default: {
+                Set<?> inB = membership(a, b);
+                Set<?> inA = membership(b, a);
+                Set<T> result = newSet(a.size() + b.size());
+                for (T t : a) {
+                    if (!inB.contains(t)) {
+                        result.add(t);
+                    }
+                }
+                for (T t : b) {
+                    if (!inA.contains(t)) {
+                        result.add(t);
+                    }
+                }
+                return result;
+            }
+        }
+    }
+
+    /**
+     * 回答“probe 中的元素是否在 target 中”的集合：target 是 Set 时直接用；target 不大于 probe 时对 target 建哈希表；
+     * 否则对小的 probe 建哈希表，用大的 target 逐个探测，只保留命中的元素
+     */
+    private static Set<?> membership(Collection<?> probe, Collection<?> target) {
+        if (target instanceof Set) {
+            return (Set<?>) target;
+        }
+        if (target.size() <= probe.size()) {
+            return new HashSet<>(target);
+        }
+        Set<?> small = probe instanceof Set ? (Set<?>) probe : new HashSet<>(probe);
+        Set<Object> hits = new HashSet<>();
+        for (Object t : target) {
+            if (small.contains(t)) {
+                hits.add(t);
+            }
+        }
+        return hits;
+    }
+
+    private static <T> Set<T> parallelHash(Operation op, Collection<? extends T> a, Collection<? extends T> b) {
+        switch (op) {
+            case INTERSECT:
+                return filter(a, parallelLookup(b));
+            case DIFFERENCE:
+                return filter(a, parallelLookup(b).negate());
+            case UNION: {
+                Set<T> result = newSet(a.size() + b.size());
+                result.addAll(a);
+                result.addAll(filter(b, t -> !result.contains(t)));
+                return result;
+            }
+            default: {
+                Predicate<Object> inA = parallelLookup(a);
+                Predicate<Object> inB = parallelLookup(b);
+                Set<T> result = filter(a, inB.negate());
+                result.addAll(filter(b, inA.negate()));
+                return result;
+            }
+        }
+    }
+
+    /**
+     * 判断元素是否在 c 中：c 是 Set 时直接用它的 contains，否则并行建哈希表。
+     * ConcurrentHashMap 不接受 null，null 元素换成 {@link #NULL_KEY} 存放和查找
+     */
+    private static Predicate<Object> parallelLookup(Collection<?> c) {
+        if (c instanceof Set) {
+            return ((Set<?>) c)::contains;
+        }
+        Set<Object> set = ConcurrentHashMap.newKeySet(c.size());
+        c.parallelStream().forEach(t -> set.add(t == null ? NULL_KEY : t));
+        return t -> set.contains(t == null ? NULL_KEY : t);
+    }
+
+    /**
+     * 并行过滤，按 c 的顺序合并各段结果
+     */
+    private static <T> Set<T> filter(Collection<? extends T> c, Predicate<Object> keep) {
+        return c.parallelStream().filter(keep).<T>map(t -> t).collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    // ---------------------------------------------------------------- 有序集合
+
+    private static <T> Set<T> sorted(Operation op, SortedSet<T> a, SortedSet<T> b) {
+        Comparator<? super T> comparator = a.comparator();
+        List<T> out = new ArrayList<>();
+        int small = Math.min(a.size(), b.size());
+        int large = Math.max(a.size(), b.size());
+        if (op == Operation.INTERSECT && (long) small * SORTED_SKEW_RATIO < large) {
+            // 遍历小的一边，在大的一边查找，O(small·log large)
+            SortedSet<T> probe = a.size() <= b.size() ? a : b;
+            SortedSet<T> target = probe == a ? b : a;
+            for (T t : probe) {
+                if (target.contains(t)) {
+                    out.add(t);
+                }
+            }
+        } else if (op == Operation.DIFFERENCE && (long) a.size() * SORTED_SKEW_RATIO < b.size()) {
+            for (T t : a) {
+                if (!b.contains(t)) {
+                    out.add(t);
+                }
+            }
+        } else {
+            merge(op, a, b, comparator, out);
+        }
+        // 结果已有序，TreeSet 从 SortedSet 构建时线性建树，不再逐个比较插入
+        return new TreeSet<>(new SortedListView<>(out, comparator));
+    }
+
+    private static <T> void merge(Operation op, SortedSet<T> a, SortedSet<T> b, Comparator<? super T> comparator, List<T> out) {
+        Iterator<T> ia = a.iterator();
+        Iterator<T> ib = b.iterator();
+        boolean hasX = ia.hasNext();
+        boolean hasY = ib.hasNext();
+        T x = hasX ? ia.next() : null;
+        T y = hasY ? ib.next() : null;
+        boolean keepA = op != Operation.INTERSECT;
+        boolean keepB = op == Operation.UNION || op == Operation.SYMMETRIC_DIFFERENCE;
+        boolean keepBoth = op == Operation.INTERSECT || op == Operation.UNION;
+        while (hasX && hasY) {
+            int c = compare(comparator, x, y);
+            if (c <= 0) {
+                if (c < 0 ? keepA : keepBoth) {
+                    out.add(x);
+                }
+                hasX = ia.hasNext();
+                x = hasX ? ia.next() : null;
+            }
+            if (c >= 0) {
+                if (c > 0 && keepB) {
+                    out.add(y);
+                }
+                hasY = ib.hasNext();
+                y = hasY ? ib.next() : null;
+            }
+        }
+        while (hasX && keepA) {
+            out.add(x);
+            hasX = ia.hasNext();
+            x = hasX ? ia.next() : null;
+        }
+        while (hasY && keepB) {
+            out.add(y);
+            hasY = ib.hasNext();
+            y = hasY ? ib.next() : null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> int compare(Comparator<? super T> comparator, T x, T y) {
+        return comparator != null ? comparator.compare(x, y) : ((Comparable<? super T>) x).compareTo(y);
+    }
+
+    /**
+     * 有序、无重复列表的只读 SortedSet 视图，用于线性构建 TreeSet；子集视图按二分查找截取列表
+     */
+    private static final class SortedListView<T> extends AbstractSet<T> implements SortedSet<T> {
+        private final List<T> list;
+        private final Comparator<? super T> comparator;
+
+        SortedListView(List<T> list, Comparator<? super T> comparator) {
+            this.list = list;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return Collections.unmodifiableList(list).iterator();
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+        @Override
+        public Comparator<? super T> comparator() {
+            return comparator;
+        }
+
+        @Override
+        public T first() {
+            if (list.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            return list.get(0);
+        }
+
+        @Override
+        public T last() {
+            if (list.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            return list.get(list.size() - 1);
+        }
+
+        @Override
+        public SortedSet<T> subSet(T fromElement, T toElement) {
+            if (compare(comparator, fromElement, toElement) > 0) {
+                throw new IllegalArgumentException("起始元素大于结束元素");
+            }
+            return view(indexOf(fromElement), indexOf(toElement));
+        }
+
+        @Override
+        public SortedSet<T> headSet(T toElement) {
+            return view(0, indexOf(toElement));
+        }
+
+        @Override
+        public SortedSet<T> tailSet(T fromElement) {
+            return view(indexOf(fromElement), list.size());
+        }
+
+        /**
+         * 第一个不小于 element 的元素的下标
+         */
+        private int indexOf(T element) {
+            int i = Collections.binarySearch(list, element, comparator);
+            return i >= 0 ? i : -i - 1;
+        }
+
+        private SortedSet<T> view(int from, int to) {
+            return new SortedListView<>(list.subList(from, to), comparator);
+        }
+    }
+
+    // ---------------------------------------------------------------- 稠密整数
+
+    /**
+     * 两边都只有 Integer、取值范围足够小时返回 {min, max}，否则返回 null
+     */
+    private static int[] denseIntRange(Collection<?> a, Collection<?> b) {
+        long total = (long) a.size() + b.size();
+        if (total < DENSE_MIN_SIZE || a.isEmpty() || !(a.iterator().next() instanceof Integer)) {
+            return null;
+        }
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (Collection<?> c : Arrays.asList(a, b)) {
+            for (Object o : c) {
+                if (!(o instanceof Integer)) {
+                    return null;
+                }
+                int v = (Integer) o;
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+        }
+        long bits = (long) max - min + 1;
+        return bits <= total * DENSE_BITS_PER_ELEMENT && bits <= Integer.MAX_VALUE ? new int[]{min, max} : null;
+    }
+
+    private static Set<Integer> dense(Operation op, Collection<Integer> a, Collection<Integer> b, int min, int max) {
+        int bits = (int) ((long) max - min + 1);
+        switch (op) {
+            case INTERSECT: {
+                BitSet inB = bits(b, min, bits);
+                Set<Integer> result = newSet(Math.min(a.size(), b.size()));
+                for (Integer t : a) {
+                    int i = t - min;
+                    if (inB.get(i)) {
+                        // 清除后重复的元素不再命中
+                        inB.clear(i);
+                        result.add(t);
+                    }
+                }
+                return result;
+            }
+            case DIFFERENCE: {
+                BitSet excluded = bits(b, min, bits);
+                Set<Integer> result = newSet(a.size());
+                for (Integer t : a) {
+                    int i = t - min;
+                    if (!excluded.get(i)) {
+                        excluded.set(i);
+                        result.add(t);
+                    }
+                }
+                return result;
+            }
+            case UNION: {
+                BitSet seen = new BitSet(bits);
+                Set<Integer> result = newSet(a.size() + b.size());
+                addUnseen(a, min, seen, result);
+                addUnseen(b, min, seen, result);
+                return result;
+            }
+            default: {
+                BitSet inA = bits(a, min, bits);
+                BitSet inB = bits(b, min, bits);
+                Set<Integer> result = newSet(a.size() + b.size());
+                for (Integer t : a) {
+                    int i = t - min;
+                    if (!inB.get(i)) {
+                        inB.set(i);
+                        result.add(t);
+                    }
+                }
+                for (Integer t : b) {
+                    int i = t - min;
+                    if (!inA.get(i)) {
+                        inA.set(i);
+                        result.add(t);
+                    }
+                }
+                return result;
+            }
+        }
+    }
+
+    private static BitSet bits(Collection<Integer> c, int min, int bits) {
+        BitSet set = new BitSet(bits);
+        for (Integer t : c) {
+            set.set(t - min);
+        }
+        return set;
+    }
+
+    private static void addUnseen(Collection<Integer> c, int min, BitSet seen, Set<Integer> result) {
+        for (Integer t : c) {
+            int i = t - min;
+            if (!seen.get(i)) {
+                seen.set(i);
+                result.add(t);
+            }
+        }
+    }
+
+    private static <T> Set<T> newSet(long expectedSize) {
+        return new LinkedHashSet<>((int) Math.min(Math.max(16, expectedSize * 4 / 3 + 1), 1 << 30));
     }
 
     public static void main(String[] args) {
@@ -14,6 +601,8 @@ public class CollectionUtils {
         List<String> dest =  new ArrayList<>(Arrays.asList("f", "e", "c"));
         intersection(source, dest);
         System.out.println(JSON.toJSONString(source));
+        System.out.println(JSON.toJSONString(union(source, dest)));
+        System.out.println(JSON.toJSONString(symmetricDifference(Arrays.asList("a", "b", "c"), dest)));
     }
 
-}
\ No newline at end of file
+}
@@ -1,17 +1,248 @@
 package many_utils;
 
 
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.context.AnalysisContext;
+import com.alibaba.excel.enums.CellExtraTypeEnum;
+import com.alibaba.excel.event.AnalysisEventListener;
+import com.alibaba.excel.metadata.CellExtra;
+import many_utils.excelModule.MergedRegionIndex;
+import many_utils.excelModule.RowHandler;
+import org.apache.poi.ss.util.CellRangeAddress;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 // 1. 自定义监听器处理合并单元格
 
+/**
+ * EasyExcel 行监听器，负责用左上角单元格的值回填合并单元格
+ * <p>
+ * EasyExcel 在一个工作表的所有行之后才回调合并信息（extra），因此分两种模式：
+ * <ul>
+ *     <li>窗口模式：未知合并区域时，最多缓存 windowSize 行，工作表读完后统一回填并输出；
+ *     超出窗口则丢弃缓存，只继续收集合并区域，由调用方以索引模式重读</li>
+ *     <li>索引模式：合并区域已知时逐行回填并立即输出，不缓存任何行</li>
+ * </ul>
+ */
+class MergedCellListener extends AnalysisEventListener<Map<Integer, String>> {
+    private final RowHandler handler;
+    private final int windowSize;
 
-// 2. 读取工具类
+    // 窗口模式下缓存的行及其行号
+    private final List<List<String>> bufferedRows = new ArrayList<>();
+    private final List<Integer> bufferedRowIndexes = new ArrayList<>();
+    private final List<CellRangeAddress> regions = new ArrayList<>();
+    private boolean overflowed;
+
+    // 索引模式下的合并区域索引及按区域编号记录的值
+    private final MergedRegionIndex mergedIndex;
+    private final String[] mergedValues;
+
+    private int lastRowIndex = -1;
+
+    /**
+     * 窗口模式
+     */
+    MergedCellListener(int windowSize, RowHandler handler) {
+        this.windowSize = windowSize;
+        this.handler = handler;
+        this.mergedIndex = null;
+        this.mergedValues = null;
+    }
+
+    /**
+     * 索引模式
+     */
+    MergedCellListener(MergedRegionIndex mergedIndex, RowHandler handler) {
+        this.windowSize = 0;
+        this.handler = handler;
+        this.mergedIndex = mergedIndex;
+        this.mergedValues = new String[mergedIndex.size()];
+        Arrays.fill(mergedValues, "");
+    }
+
+    @Override
+    public void invoke(Map<Integer, String> data, AnalysisContext context) {
+        int rowIndex = context.readRowHolder().getRowIndex();
+        List<String> rowData = toRow(data);
+
+        if (mergedIndex != null) {
+            fillRow(rowIndex, rowData);
+            emit(rowIndex, rowData);
+            return;
+        }
+        if (overflowed) {
+            return;
+        }
+        if (bufferedRows.size() >= windowSize) {
+            // 超出窗口：放弃缓存，只继续收集合并区域
+            overflowed = true;
+            bufferedRows.clear();
+            bufferedRowIndexes.clear();
+            return;
+        }
+        bufferedRows.add(rowData);
+        bufferedRowIndexes.add(rowIndex);
+    }
+
+    @Override
+    public void extra(CellExtra extra, AnalysisContext context) {
+        if (extra.getType() == CellExtraTypeEnum.MERGE) {
+            regions.add(new CellRangeAddress(extra.getFirstRowIndex(), extra.getLastRowIndex(),
+                    extra.getFirstColumnIndex(), extra.getLastColumnIndex()));
+        }
+    }
+
+    @Override
+    public void doAfterAllAnalysed(AnalysisContext context) {
+        if (mergedIndex != null || overflowed) {
+            return;
+        }
+
+        // 窗口模式：先取所有左上角单元格的值，再回填
+        MergedRegionIndex index = MergedRegionIndex.of(regions);
+        String[] values = new String[index.size()];
+        Arrays.fill(values, "");
+        for (int i = 0; i < bufferedRows.size(); i++) {
+            int rowIndex = bufferedRowIndexes.get(i);
+            List<String> rowData = bufferedRows.get(i);
+            for (int j = 0; j < rowData.size(); j++) {
+                int regionId = index.find(rowIndex, j);
+                if (regionId >= 0 && index.isTopLeft(regionId, rowIndex, j)) {
+                    values[regionId] = rowData.get(j);
+                }
+            }
+        }
+        for (int i = 0; i < bufferedRows.size(); i++) {
+            int rowIndex = bufferedRowIndexes.get(i);
+            List<String> rowData = bufferedRows.get(i);
+            fillRow(index, values, rowIndex, rowData);
+            emit(rowIndex, rowData);
+        }
+        bufferedRows.clear();
+        bufferedRowIndexes.clear();
+    }
 
+    boolean isOverflowed() {
+        return overflowed;
+    }
 
+    List<CellRangeAddress> getRegions() {
+        return regions;
+    }
 
+    private void fillRow(int rowIndex, List<String> rowData) {
+        // 左上角单元格总是先于区域内其他单元格到达
+        for (int j = 0; j < rowData.size(); j++) {
+            int regionId = mergedIndex.find(rowIndex, j);
+            if (regionId >= 0 && mergedIndex.isTopLeft(regionId, rowIndex, j)) {
+                mergedValues[regionId] = rowData.get(j);
+            }
+        }
+        fillRow(mergedIndex, mergedValues, rowIndex, rowData);
+    }
+
+    private static void fillRow(MergedRegionIndex index, String[] values, int rowIndex, List<String> rowData) {
+        if (index.isEmpty()) {
+            return;
+        }
+        for (int j = 0; j < rowData.size(); j++) {
+            int regionId = index.find(rowIndex, j);
+            if (regionId >= 0) {
+                rowData.set(j, values[regionId]);
+            }
+        }
+    }
+
+    /**
+     * 与 ExcelPOIReaderUtil 保持一致：中间缺失的行输出为空行
+     */
+    private void emit(int rowIndex, List<String> rowData) {
+        if (lastRowIndex >= 0) {
+            for (int i = lastRowIndex + 1; i < rowIndex; i++) {
+                handler.handleRow(i, new ArrayList<>());
+            }
+        }
+        handler.handleRow(rowIndex, rowData);
+        lastRowIndex = rowIndex;
+    }
+
+    private static List<String> toRow(Map<Integer, String> data) {
+        int width = 0;
+        for (Integer col : data.keySet()) {
+            width = Math.max(width, col + 1);
+        }
+        List<String> rowData = new ArrayList<>(width);
+        for (int j = 0; j < width; j++) {
+            String value = data.get(j);
+            rowData.add(value == null ? "" : value);
+        }
+        return rowData;
+    }
+}
+
+// 2. 读取工具类
+
+/**
+ * 基于 EasyExcel 监听器的 Excel 读取工具，支持合并单元格
+ * <p>
+ * 行以流的方式经过监听器，内存只与窗口大小和合并区域数量相关，可作为 POI DOM 读取的替代。
+ * 单元格按 EasyExcel 的默认格式转换为字符串，每行从第0列开始。
+ */
 public class ExcelUtils {
 
+    /**
+     * 默认回填窗口大小（行数）
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 1000;
+
+    /**
+     * 读取工作表为字符串列表，合并单元格填充为左上角单元格的值
+     *
+     * @param filePath   Excel 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @return 解析后的字符串数据列表
+     */
+    public static List<List<String>> readWithMerge(String filePath, int sheetIndex) {
+        List<List<String>> result = new ArrayList<>();
+        readWithMerge(filePath, sheetIndex, DEFAULT_WINDOW_SIZE, (rowIndex, rowData) -> result.add(rowData));
+        return result;
+    }
+
+    /**
+     * 流式读取工作表，逐行回调，合并单元格填充为左上角单元格的值
+     * <p>
+     * 行数不超过窗口时只读一遍；超过窗口时第一遍只收集合并区域，第二遍逐行回填输出。
+     *
+     * @param filePath   Excel 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @param windowSize 回填窗口大小（行数）
+     * @param handler    行回调
+     */
+    public static void readWithMerge(String filePath, int sheetIndex, int windowSize, RowHandler handler) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("窗口大小必须大于0: " + windowSize);
+        }
+
+        MergedCellListener windowListener = new MergedCellListener(windowSize, handler);
+        EasyExcel.read(filePath, windowListener)
+                .extraRead(CellExtraTypeEnum.MERGE)
+                .headRowNumber(0)
+                .ignoreEmptyRow(false)
+                .sheet(sheetIndex)
+                .doRead();
+        if (!windowListener.isOverflowed()) {
+            return;
+        }
+
+        MergedRegionIndex mergedIndex = MergedRegionIndex.of(windowListener.getRegions());
+        EasyExcel.read(filePath, new MergedCellListener(mergedIndex, handler))
+                .headRowNumber(0)
+                .ignoreEmptyRow(false)
+                .sheet(sheetIndex)
+                .doRead();
+    }
 }
@@ -0,0 +1,152 @@
+package many_utils.excelModule;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.ExcelNumberFormat;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * 工作簿级别的数值格式缓存：按样式下标记录该样式是否为日期格式
+ * <p>
+ * 每个样式的格式字符串只解析一次，之后数值单元格的转换只需一次数组查找再格式化，
+ * 替代逐单元格调用 {@code DateUtil.isCellDateFormatted}。
+ * 并发使用时只会重复解析个别样式，结果一致。
+ */
+final class CellFormatCache {
+
+    private static final byte UNKNOWN = 0;
+    private static final byte NUMBER = 1;
+    private static final byte DATE = 2;
+
+    private volatile byte[] kinds;
+    private final boolean date1904;
+
+    CellFormatCache(int numCellStyles, boolean date1904) {
+        this.kinds = new byte[Math.max(numCellStyles, 1)];
+        this.date1904 = date1904;
+    }
+
+    static CellFormatCache of(Workbook workbook) {
+        return new CellFormatCache(workbook.getNumCellStyles(), isDate1904(workbook));
+    }
+
+    static CellFormatCache of(StylesTable styles, boolean date1904) {
+        return new CellFormatCache(styles == null ? 0 : styles.getNumCellStyles(), date1904);
+    }
+
+    boolean isDate1904() {
+        return date1904;
+    }
+
+    /**
+     * 与 DateUtil.isCellDateFormatted(cell) 判断结果一致
+     */
+    boolean isDateFormatted(Cell cell, double value) {
+        if (!DateUtil.isValidExcelDate(value)) {
+            return false;
+        }
+        int styleIndex = styleIndex(cell);
+        byte kind = kindAt(styleIndex);
+        if (kind == UNKNOWN) {
+            kind = resolve(styleIndex, ExcelNumberFormat.from(cell.getCellStyle()));
+        }
+        return kind == DATE;
+    }
+
+    /**
+     * 流式读取时按样式表判断
+     */
+    boolean isDateFormatted(int styleIndex, double value, StylesTable styles) {
+        if (styles == null || styleIndex >= styles.getNumCellStyles() || !DateUtil.isValidExcelDate(value)) {
+            return false;
+        }
+        byte kind = kindAt(styleIndex);
+        if (kind == UNKNOWN) {
+            kind = resolve(styleIndex, ExcelNumberFormat.from(styles.getStyleAt(styleIndex)));
+        }
+        return kind == DATE;
+    }
+
+    /**
+     * xls 事件模型读取时按 XF 下标判断，数值格式只在首次遇到该 XF 时查询
+     *
+     * @param formats 按 XF 下标查询数值格式
+     */
+    boolean isDateFormatted(int xfIndex, double value, IntFunction<ExcelNumberFormat> formats) {
+        if (!DateUtil.isValidExcelDate(value)) {
+            return false;
+        }
+        byte kind = kindAt(xfIndex);
+        if (kind == UNKNOWN) {
+            kind = resolve(xfIndex, formats.apply(xfIndex));
+        }
+        return kind == DATE;
+    }
+
+    /**
+     * 数值单元格的字符串值：日期格式输出 Date.toString()，否则输出 String.valueOf(double)
+     */
+    String formatNumeric(Cell cell) {
+        double value = cell.getNumericCellValue();
+        return formatNumeric(value, isDateFormatted(cell, value));
+    }
+
+    String formatNumeric(double value, boolean date) {
+        return date ? DateUtil.getJavaDate(value, date1904).toString() : String.valueOf(value);
+    }
+
+    /**
+     * 日期格式数值对应的时间戳，与 formatNumeric 输出的日期一致
+     */
+    long toEpochMillis(double value) {
+        return DateUtil.getJavaDate(value, date1904).getTime();
+    }
+
+    private byte kindAt(int styleIndex) {
+        byte[] current = kinds;
+        return styleIndex < current.length ? current[styleIndex] : UNKNOWN;
+    }
+
+    private byte resolve(int styleIndex, ExcelNumberFormat format) {
+        byte kind = DateUtil.isADateFormat(format) ? DATE : NUMBER;
+        byte[] current = kinds;
+        if (styleIndex >= current.length) {
+            // 读取过程中新增了样式（如调用方修改工作簿），按需扩容
+            current = Arrays.copyOf(current, Math.max(styleIndex + 1, current.length << 1));
+            kinds = current;
+        }
+        current[styleIndex] = kind;
+        return kind;
+    }
+
+    /**
+     * xlsx 单元格直接读取样式下标，避免创建样式对象
+     */
+    private static int styleIndex(Cell cell) {
+        if (cell instanceof XSSFCell) {
+            CTCell ctCell = ((XSSFCell) cell).getCTCell();
+            return ctCell.isSetS() ? (int) ctCell.getS() : 0;
+        }
+        CellStyle style = cell.getCellStyle();
+        return style == null ? 0 : style.getIndex() & 0xFFFF;
+    }
+
+    static boolean isDate1904(Workbook workbook) {
+        if (workbook instanceof XSSFWorkbook) {
+            return ((XSSFWorkbook) workbook).isDate1904();
+        }
+        if (workbook instanceof HSSFWorkbook) {
+            return ((HSSFWorkbook) workbook).getInternalWorkbook().isUsing1904DateWindowing();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,42 @@
+package many_utils.excelModule;
+
+/**
+ * 带类型的单元格回调，适合只需要数值做汇总的场景，不为每个单元格生成字符串和行列表
+ * <p>
+ * 遍历范围与 {@link ExcelPOIReaderUtil#readSheetWithMerge} 一致：从工作表第一行到最后一行，缺失的行只回调
+ * {@link #onRowEnd}；每行从第一个单元格到最后一个单元格，按列顺序回调。合并单元格已按左上角单元格的值和类型回调。
+ * 类型规则与字符串读取一致：日期格式的数值回调 {@link #onDate}，公式按缓存结果的类型回调（数值结果不按日期处理），
+ * 错误值和没有缓存结果的公式回调 {@link #onBlank}。
+ * <p>
+ * 行号、列号为工作表中的行号、列号（从0开始）。数值和布尔值以基本类型传入，读取过程不为这两类单元格分配对象。
+ * 所有方法默认不做处理，按需覆盖。
+ */
+public interface CellVisitor {
+
+    default void onNumeric(int row, int col, double value) {
+    }
+
+    /**
+     * @param value 单元格的字符串，回调返回后仍然有效
+     */
+    default void onString(int row, int col, CharSequence value) {
+    }
+
+    default void onBoolean(int row, int col, boolean value) {
+    }
+
+    /**
+     * @param epochMillis 按默认时区解释的日期时间，与 {@code DateUtil.getJavaDate(value, date1904).getTime()} 一致
+     */
+    default void onDate(int row, int col, long epochMillis) {
+    }
+
+    default void onBlank(int row, int col) {
+    }
+
+    /**
+     * 一行的单元格回调完毕，缺失的行也会回调
+     */
+    default void onRowEnd(int row) {
+    }
+}
@@ -0,0 +1,422 @@
+package many_utils.excelModule;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按列存储的带类型工作表数据，作为 {@code List<List<String>>} 的低内存替代
+ * <p>
+ * 数值列（含日期）存为 {@code double[]}，布尔值存为位图，字符串按字典编码为 {@code int[]}，
+ * 每个单元格另有 1 字节的类型标记。合并单元格已填充为左上角单元格的值。
+ * <p>
+ * {@link #asRows()} 提供与 {@link ExcelPOIReaderUtil#readSheetWithMerge} 完全一致的字符串视图，
+ * 字符串在访问时才生成。
+ */
+public final class ColumnarSheet {
+
+    /**
+     * 单元格值类型
+     */
+    public enum ValueType {
+        BLANK, NUMERIC, DATE, BOOLEAN, STRING
+    }
+
+    private static final byte BLANK = 0;
+    private static final byte NUMERIC = 1;
+    private static final byte DATE = 2;
+    private static final byte BOOLEAN = 3;
+    private static final byte STRING = 4;
+    private static final ValueType[] VALUE_TYPES = ValueType.values();
+
+    private final int firstRowNum;
+    private final int rowCount;
+    private final int[] rowFirstCellNums;
+    private final int[] rowLastCellNums;
+    private final Column[] columns;
+    private final String[] dictionary;
+    private final boolean date1904;
+
+    private ColumnarSheet(Builder builder) {
+        this.firstRowNum = builder.firstRowNum;
+        this.rowCount = builder.rowCount;
+        this.rowFirstCellNums = Arrays.copyOf(builder.rowFirstCellNums, rowCount);
+        this.rowLastCellNums = Arrays.copyOf(builder.rowLastCellNums, rowCount);
+        this.columns = new Column[builder.columns.size()];
+        for (int j = 0; j < columns.length; j++) {
+            Column column = builder.columns.get(j);
+            columns[j] = column == null ? null : column.trim(rowCount);
+        }
+        this.dictionary = builder.dictionary.toArray(new String[0]);
+        this.date1904 = builder.date1904;
+    }
+
+    /**
+     * @return 第一行在工作表中的行号
+     */
+    public int getFirstRowNum() {
+        return firstRowNum;
+    }
+
+    /**
+     * @return 行数（行号连续，中间缺失的行为空行）
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return 列数（最大列号 + 1）
+     */
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    /**
+     * @param row 行下标（从0开始，对应工作表行号 firstRowNum + row）
+     * @return 该行第一个单元格的列号，空行返回 -1
+     */
+    public int getRowFirstCellNum(int row) {
+        return rowFirstCellNums[row];
+    }
+
+    /**
+     * @param row 行下标
+     * @return 该行最后一个单元格的列号 + 1，空行返回 -1
+     */
+    public int getRowLastCellNum(int row) {
+        return rowLastCellNums[row];
+    }
+
+    boolean isDate1904() {
+        return date1904;
+    }
+
+    public ValueType getType(int row, int col) {
+        return VALUE_TYPES[typeAt(row, col)];
+    }
+
+    /**
+     * @return 数值或日期单元格的数值（日期为 Excel 序列值），其他类型返回 NaN
+     */
+    public double getNumber(int row, int col) {
+        byte type = typeAt(row, col);
+        return type == NUMERIC || type == DATE ? columns[col].numbers[row] : Double.NaN;
+    }
+
+    public boolean getBoolean(int row, int col) {
+        return typeAt(row, col) == BOOLEAN && columns[col].booleans.get(row);
+    }
+
+    /**
+     * @return 字符串单元格的字典编码，其他类型返回 -1
+     */
+    public int getStringCode(int row, int col) {
+        return typeAt(row, col) == STRING ? columns[col].codes[row] : -1;
+    }
+
+    /**
+     * @return 字典中编码对应的字符串
+     */
+    public String getDictionaryValue(int code) {
+        return dictionary[code];
+    }
+
+    public int getDictionarySize() {
+        return dictionary.length;
+    }
+
+    /**
+     * 获取单元格的字符串值，格式与 ExcelPOIReaderUtil.getCellValueAsString 一致
+     */
+    public String getString(int row, int col) {
+        switch (typeAt(row, col)) {
+            case NUMERIC:
+                return String.valueOf(columns[col].numbers[row]);
+            case DATE:
+                return DateUtil.getJavaDate(columns[col].numbers[row], date1904).toString();
+            case BOOLEAN:
+                return String.valueOf(columns[col].booleans.get(row));
+            case STRING:
+                return dictionary[columns[col].codes[row]];
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * 获取一行的字符串值，范围与 readSheetWithMerge 一致（从该行第一个单元格到最后一个单元格）
+     */
+    public List<String> getRow(int row) {
+        int first = rowFirstCellNums[row];
+        int last = rowLastCellNums[row];
+        if (first < 0 || last < 0) {
+            return new ArrayList<>();
+        }
+        List<String> rowData = new ArrayList<>(last - first);
+        for (int j = first; j < last; j++) {
+            rowData.add(getString(row, j));
+        }
+        return rowData;
+    }
+
+    /**
+     * 按单元格类型依次回调所有行，范围与 {@link #asRows()} 一致，行号为工作表中的行号；
+     * 数值、布尔值和字符串直接从列数组和字典取值，不分配对象
+     */
+    public void accept(CellVisitor visitor) {
+        for (int i = 0; i < rowCount; i++) {
+            int rowNum = firstRowNum + i;
+            int first = rowFirstCellNums[i];
+            int last = rowLastCellNums[i];
+            for (int j = Math.max(first, 0); j < last; j++) {
+                Column column = columns[j];
+                switch (column == null ? BLANK : column.types[i]) {
+                    case NUMERIC:
+                        visitor.onNumeric(rowNum, j, column.numbers[i]);
+                        break;
+                    case DATE:
+                        visitor.onDate(rowNum, j, DateUtil.getJavaDate(column.numbers[i], date1904).getTime());
+                        break;
+                    case BOOLEAN:
+                        visitor.onBoolean(rowNum, j, column.booleans.get(i));
+                        break;
+                    case STRING:
+                        visitor.onString(rowNum, j, dictionary[column.codes[i]]);
+                        break;
+                    default:
+                        visitor.onBlank(rowNum, j);
+                        break;
+                }
+            }
+            visitor.onRowEnd(rowNum);
+        }
+    }
+
+    /**
+     * 获取一列的数值，非数值单元格为 NaN
+     */
+    public double[] getNumericColumn(int col) {
+        double[] values = new double[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            values[i] = getNumber(i, col);
+        }
+        return values;
+    }
+
+    /**
+     * 获取一列的字符串值
+     */
+    public List<String> getColumn(int col) {
+        List<String> values = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            values.add(getString(i, col));
+        }
+        return values;
+    }
+
+    /**
+     * 兼容视图：与 readSheetWithMerge 返回值一致的按行字符串列表，访问时才生成字符串
+     */
+    public List<List<String>> asRows() {
+        return new AbstractList<List<String>>() {
+            @Override
+            public List<String> get(int index) {
+                return getRow(index);
+            }
+
+            @Override
+            public int size() {
+                return rowCount;
+            }
+        };
+    }
+
+    private byte typeAt(int row, int col) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("行下标越界: " + row);
+        }
+        if (col < 0 || col >= columns.length || columns[col] == null) {
+            return BLANK;
+        }
+        return columns[col].types[row];
+    }
+
+    /**
+     * 单列存储，数值、布尔、字符串数组在该列首次出现对应类型时才分配
+     */
+    private static class Column {
+        private byte[] types;
+        private double[] numbers;
+        private BitSet booleans;
+        private int[] codes;
+
+        Column(int capacity) {
+            types = new byte[capacity];
+        }
+
+        void ensureCapacity(int capacity) {
+            if (types.length >= capacity) {
+                return;
+            }
+            int newCapacity = Math.max(capacity, types.length + (types.length >> 1));
+            types = Arrays.copyOf(types, newCapacity);
+            if (numbers != null) {
+                numbers = Arrays.copyOf(numbers, newCapacity);
+            }
+            if (codes != null) {
+                codes = Arrays.copyOf(codes, newCapacity);
+            }
+        }
+
+        Column trim(int rowCount) {
+            types = Arrays.copyOf(types, rowCount);
+            if (numbers != null) {
+                numbers = Arrays.copyOf(numbers, rowCount);
+            }
+            if (codes != null) {
+                codes = Arrays.copyOf(codes, rowCount);
+            }
+            return this;
+        }
+    }
+
+    /**
+     * 按行写入单元格，构建列式数据
+     */
+    static class Builder {
+        private final int firstRowNum;
+        private final boolean date1904;
+        private int rowCount;
+        private int[] rowFirstCellNums = new int[16];
+        private int[] rowLastCellNums = new int[16];
+        private final List<Column> columns = new ArrayList<>();
+        private final List<String> dictionary = new ArrayList<>();
+        private final Map<String, Integer> dictionaryCodes = new HashMap<>();
+
+        // 当前行下标
+        private int row = -1;
+
+        Builder(int firstRowNum, boolean date1904) {
+            this.firstRowNum = firstRowNum;
+            this.date1904 = date1904;
+        }
+
+        /**
+         * 开始新的一行，行下标依次递增
+         */
+        void startRow() {
+            row = rowCount++;
+            if (rowCount > rowFirstCellNums.length) {
+                rowFirstCellNums = Arrays.copyOf(rowFirstCellNums, rowFirstCellNums.length << 1);
+                rowLastCellNums = Arrays.copyOf(rowLastCellNums, rowLastCellNums.length << 1);
+            }
+            rowFirstCellNums[row] = -1;
+            rowLastCellNums[row] = -1;
+        }
+
+        /**
+         * 设置当前行的单元格范围，[firstCellNum, lastCellNum)
+         */
+        void setRowSpan(int firstCellNum, int lastCellNum) {
+            rowFirstCellNums[row] = firstCellNum;
+            rowLastCellNums[row] = lastCellNum;
+        }
+
+        void setBlank(int col) {
+            column(col).types[row] = BLANK;
+        }
+
+        void setNumber(int col, double value) {
+            setNumeric(col, value, NUMERIC);
+        }
+
+        void setDate(int col, double excelDate) {
+            setNumeric(col, excelDate, DATE);
+        }
+
+        void setBoolean(int col, boolean value) {
+            Column column = column(col);
+            if (column.booleans == null) {
+                column.booleans = new BitSet();
+            }
+            column.types[row] = BOOLEAN;
+            column.booleans.set(row, value);
+        }
+
+        void setString(int col, String value) {
+            Column column = column(col);
+            if (column.codes == null) {
+                column.codes = new int[column.types.length];
+            }
+            Integer code = dictionaryCodes.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                dictionaryCodes.put(value, code);
+            }
+            column.types[row] = STRING;
+            column.codes[row] = code;
+        }
+
+        /**
+         * 把之前写入的单元格（如合并区域左上角）复制到当前行
+         *
+         * @param srcRow 源行下标
+         * @param srcCol 源列号
+         * @param col    当前行的目标列号
+         */
+        void copyCell(int srcRow, int srcCol, int col) {
+            Column src = srcRow >= 0 && srcRow < rowCount && srcCol < columns.size() ? columns.get(srcCol) : null;
+            // 源列只扩容到最后一次写入的行，超出部分视为空白
+            byte type = src == null || srcRow >= src.types.length ? BLANK : src.types[srcRow];
+            switch (type) {
+                case NUMERIC:
+                case DATE:
+                    setNumeric(col, src.numbers[srcRow], type);
+                    break;
+                case BOOLEAN:
+                    setBoolean(col, src.booleans.get(srcRow));
+                    break;
+                case STRING:
+                    setString(col, dictionary.get(src.codes[srcRow]));
+                    break;
+                default:
+                    setBlank(col);
+                    break;
+            }
+        }
+
+        ColumnarSheet build() {
+            return new ColumnarSheet(this);
+        }
+
+        private void setNumeric(int col, double value, byte type) {
+            Column column = column(col);
+            if (column.numbers == null) {
+                column.numbers = new double[column.types.length];
+            }
+            column.types[row] = type;
+            column.numbers[row] = value;
+        }
+
+        private Column column(int col) {
+            while (columns.size() <= col) {
+                columns.add(null);
+            }
+            Column column = columns.get(col);
+            if (column == null) {
+                column = new Column(Math.max(16, rowFirstCellNums.length));
+                columns.set(col, column);
+            }
+            column.ensureCapacity(rowCount);
+            return column;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package many_utils.excelModule;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 异步读取 Excel，返回 CompletableFuture，调用线程不等待解析
+ * <p>
+ * 默认每个读取一个虚拟线程（Java 21 及以上），更早的版本退回按需创建的守护线程。
+ * 同时解析的读取受内存预算限制：每个读取开始前按 {@link WorkbookSizeEstimate} 估算所需内存
+ * （按 {@link ExcelPOIReaderUtil#readExcelWithMerge(String, int, ReadOptions)} 会选择的读取方式计算），
+ * 从预算中预留后才开始解析，读完释放；预留不到时排队等待，排队的读取数见 {@link #getQueueDepth()}。
+ * 单个读取的估算超过整个预算时按整个预算预留，即单独解析。
+ * <p>
+ * 对返回的 future 调用 {@code cancel(true)} 会中断执行读取的线程：排队中的读取立即结束，
+ * 解析中的读取在下一行开始前停止。构建工作簿（打开文件、解析 XML）的过程不能中断，在构建完成后停止。
+ * 取消只对返回的 future 本身有效，thenApply 等派生的 future 被取消时不会中断读取。
+ *
+ * <pre>
+ * try (ExcelAsyncReader reader = new ExcelAsyncReader()) {
+ *     CompletableFuture&lt;List&lt;List&lt;String&gt;&gt;&gt; future = reader.readExcelWithMerge(path, 0);
+ *     future.thenAccept(rows -&gt; importService.save(rows));
+ * }
+ * </pre>
+ */
+public final class ExcelAsyncReader implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(ExcelAsyncReader.class.getName());
+
+    private static final int BYTES_PER_PERMIT_SHIFT = 20;
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final Semaphore memory;
+    private final int totalPermits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * 内存预算为最大堆的一半，使用默认的执行器
+     */
+    public ExcelAsyncReader() {
+        this(Runtime.getRuntime().maxMemory() / 2);
+    }
+
+    /**
+     * 使用默认的执行器，关闭时一并关闭
+     *
+     * @param memoryBudget 同时解析的读取可以使用的内存（字节），至少 1MB
+     */
+    public ExcelAsyncReader(long memoryBudget) {
+        this(memoryBudget, newDefaultExecutor(), true);
+    }
+
+    /**
+     * 使用调用方的执行器，关闭时不关闭执行器。等待内存预算的读取会占用执行器的线程
+     *
+     * @param memoryBudget 同时解析的读取可以使用的内存（字节），至少 1MB
+     * @param executor     执行读取的执行器
+     */
+    public ExcelAsyncReader(long memoryBudget, Executor executor) {
+        this(memoryBudget, executor, false);
+    }
+
+    private ExcelAsyncReader(long memoryBudget, Executor executor, boolean owned) {
+        if (memoryBudget >> BYTES_PER_PERMIT_SHIFT <= 0) {
+            throw new IllegalArgumentException("内存预算至少为 1MB: " + memoryBudget);
+        }
+        this.executor = executor;
+        this.ownedExecutor = owned ? (ExecutorService) executor : null;
+        this.totalPermits = (int) Math.min(memoryBudget >> BYTES_PER_PERMIT_SHIFT, Integer.MAX_VALUE);
+        // 公平模式，避免大文件一直被后来的小文件插队
+        this.memory = new Semaphore(totalPermits, true);
+    }
+
+    /**
+     * 异步读取 Excel 文件为字符串列表，结果与 {@link ExcelPOIReaderUtil#readExcelWithMerge(String, int)} 相同
+     *
+     * @param filePath   Excel 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @return 读取结果；读取失败时以原异常完成，被取消时以 CancellationException 完成
+     */
+    public CompletableFuture<List<List<String>>> readExcelWithMerge(String filePath, int sheetIndex) {
+        return readExcelWithMerge(filePath, sheetIndex, ReadOptions.all());
+    }
+
+    /**
+     * 按读取选项异步读取 Excel 文件，结果与 {@link ExcelPOIReaderUtil#readExcelWithMerge(String, int, ReadOptions)} 相同
+     *
+     * @param filePath   Excel 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @param options    读取选项，读取完成前不要修改
+     * @return 读取结果；读取失败时以原异常完成，被取消时以 CancellationException 完成
+     */
+    public CompletableFuture<List<List<String>>> readExcelWithMerge(String filePath, int sheetIndex, ReadOptions options) {
+        ReadFuture future = new ReadFuture();
+        queued.incrementAndGet();
+        try {
+            executor.execute(() -> run(future, filePath, sheetIndex, options));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * @return 已提交、尚未开始解析的读取数（等待线程或内存预算）
+     */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    /**
+     * @return 正在解析的读取数
+     */
+    public int getActiveReads() {
+        return active.get();
+    }
+
+    /**
+     * @return 内存预算中尚未预留的字节数
+     */
+    public long getAvailableBytes() {
+        return (long) memory.availablePermits() << BYTES_PER_PERMIT_SHIFT;
+    }
+
+    /**
+     * 不再接受新的读取；使用默认执行器时关闭执行器，已提交的读取继续完成
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    private void run(ReadFuture future, String filePath, int sheetIndex, ReadOptions options) {
+        if (!future.start()) {
+            // 开始前已被取消
+            queued.decrementAndGet();
+            return;
+        }
+        boolean waiting = true;
+        int permits = 0;
+        try {
+            Estimator estimator = new Estimator(filePath, sheetIndex);
+            ReadStrategy strategy = ExcelPOIReaderUtil.selectStrategy(filePath, sheetIndex, options, estimator);
+            int required = permits(estimator.forPermits(), strategy);
+            memory.acquire(required);
+            permits = required;
+
+            waiting = false;
+            queued.decrementAndGet();
+            active.incrementAndGet();
+            future.complete(ExcelPOIReaderUtil.readExcelWithMerge(filePath, sheetIndex, options, strategy, true));
+        } catch (InterruptedException e) {
+            future.completeExceptionally(new CancellationException("读取已取消"));
+        } catch (IOException | RuntimeException | Error e) {
+            future.completeExceptionally(e);
+        } finally {
+            memory.release(permits);
+            if (waiting) {
+                queued.decrementAndGet();
+            } else {
+                active.decrementAndGet();
+            }
+            future.finish();
+        }
+    }
+
+    /**
+     * 选择读取方式和换算份额共用一次估算：选择读取方式时需要才打开文件估算，
+     * 文件小到最坏情况下也在堆预算之内时只按文件大小估算
+     */
+    private static final class Estimator implements Supplier<WorkbookSizeEstimate> {
+
+        private final String filePath;
+        private final int sheetIndex;
+        private boolean estimated;
+        private WorkbookSizeEstimate estimate;
+
+        Estimator(String filePath, int sheetIndex) {
+            this.filePath = filePath;
+            this.sheetIndex = sheetIndex;
+        }
+
+        @Override
+        public WorkbookSizeEstimate get() {
+            if (!estimated) {
+                estimated = true;
+                estimate = ExcelPOIReaderUtil.estimateQuietly(filePath, sheetIndex);
+            }
+            return estimate;
+        }
+
+        WorkbookSizeEstimate forPermits() {
+            if (!estimated && WorkbookSizeEstimate.fitsWithinBudget(filePath, ExcelPOIReaderUtil.getHeapBudget())) {
+                return WorkbookSizeEstimate.ofFileSize(filePath);
+            }
+            return get();
+        }
+    }
+
+    /**
+     * 按读取方式换算需要预留的份额（1MB 一份），不超过整个预算
+     */
+    private int permits(WorkbookSizeEstimate estimate, ReadStrategy strategy) {
+        if (estimate == null) {
+            // 无法估算时只预留最小的份额，由读取过程报告具体错误
+            return 1;
+        }
+        long bytes = estimate.getEstimatedResultBytes();
+        if (strategy == ReadStrategy.DOM) {
+            bytes += estimate.getEstimatedDomBytes();
+        }
+        long permits = (bytes + (1 << BYTES_PER_PERMIT_SHIFT) - 1) >> BYTES_PER_PERMIT_SHIFT;
+        return (int) Math.max(1, Math.min(permits, totalPermits));
+    }
+
+    /**
+     * Java 21 及以上每个任务一个虚拟线程；更早的版本按需创建守护线程，空闲后回收
+     */
+    private static ExecutorService newDefaultExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            LOG.log(Level.FINE, "当前 Java 版本不支持虚拟线程，使用平台线程");
+        } catch (InvocationTargetException e) {
+            // Java 19、20 未开启预览特性时抛出 UnsupportedOperationException
+            LOG.log(Level.FINE, "虚拟线程不可用，使用平台线程", e.getCause());
+        }
+        return Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "excel-async-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 取消时中断正在执行读取的线程。线程只在 start 与 finish 之间登记，
+     * 读取结束后不会再被中断，线程池中的线程执行下一个任务时不受影响
+     */
+    private static final class ReadFuture extends CompletableFuture<List<List<String>>> {
+        private Thread runner;
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled && mayInterruptIfRunning) {
+                synchronized (this) {
+                    if (runner != null) {
+                        runner.interrupt();
+                    }
+                }
+            }
+            return cancelled;
+        }
+
+        /**
+         * @return 已被取消时返回 false
+         */
+        synchronized boolean start() {
+            if (isDone()) {
+                return false;
+            }
+            runner = Thread.currentThread();
+            return true;
+        }
+
+        void finish() {
+            synchronized (this) {
+                runner = null;
+            }
+            // 清除读取期间收到的中断
+            Thread.interrupted();
+        }
+    }
+}
@@ -0,0 +1,672 @@
+package many_utils.excelModule;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 批量导入目录或文件列表中的 Excel 文件，自动处理合并单元格
+ * <p>
+ * 处理分为三个阶段，各阶段线程数单独配置，阶段之间用有界队列连接：
+ * <ol>
+ *     <li>解析：解压并解析文件，构建工作簿对象</li>
+ *     <li>转换：填充合并单元格、把单元格转为字符串，完成后立即释放工作簿</li>
+ *     <li>输出：把结果交给 {@link IngestSink}，同一文件的数据总是由同一个输出线程按顺序交付</li>
+ * </ol>
+ * 下游处理不过来时上游在队列上阻塞，同时驻留内存的工作簿不超过 解析线程数 + 队列容量 + 转换线程数 个。
+ * 大于 {@link #streamingThreshold(long)} 的文件不构建工作簿，在解析阶段直接流式读取（事件模型中解析与转换同时完成），
+ * 每 {@link #chunkSize(int)} 行一批送入输出阶段。
+ * <p>
+ * 每个文件单独记录结果，一个文件解析、转换或输出失败不影响其他文件。
+ *
+ * <pre>
+ * List&lt;ExcelBatchIngester.FileResult&gt; results = new ExcelBatchIngester()
+ *         .parseThreads(2)
+ *         .convertThreads(4)
+ *         .ingest(Paths.get("/data/uploads"), sink);
+ * </pre>
+ * 配置方法返回自身，配置完成后可重复调用 {@code ingest}，不要在导入进行中修改配置。
+ */
+public class ExcelBatchIngester {
+
+    /**
+     * 默认的流式读取阈值（文件字节数）：xlsx 构建工作簿后占用的内存通常是文件大小的数十倍
+     */
+    public static final long DEFAULT_STREAMING_THRESHOLD = 16L * 1024 * 1024;
+
+    /**
+     * 流式读取时默认每批交付的行数
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private int parseThreads = 1;
+    private int convertThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private int outputThreads = 1;
+    private int queueCapacity = 2;
+    private int outputQueueCapacity = 16;
+    private long streamingThreshold = DEFAULT_STREAMING_THRESHOLD;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * @param threads 解析阶段线程数，默认1（解析以 I/O 和解压为主）
+     */
+    public ExcelBatchIngester parseThreads(int threads) {
+        this.parseThreads = requirePositive(threads, "解析线程数");
+        return this;
+    }
+
+    /**
+     * @param threads 转换阶段线程数，默认为 CPU 核数减1
+     */
+    public ExcelBatchIngester convertThreads(int threads) {
+        this.convertThreads = requirePositive(threads, "转换线程数");
+        return this;
+    }
+
+    /**
+     * @param threads 输出阶段线程数，默认1；大于1时 {@link IngestSink} 需要线程安全
+     */
+    public ExcelBatchIngester outputThreads(int threads) {
+        this.outputThreads = requirePositive(threads, "输出线程数");
+        return this;
+    }
+
+    /**
+     * @param capacity 解析与转换之间的队列容量（已解析、等待转换的工作簿数），默认2
+     */
+    public ExcelBatchIngester queueCapacity(int capacity) {
+        this.queueCapacity = requirePositive(capacity, "队列容量");
+        return this;
+    }
+
+    /**
+     * @param capacity 每个输出线程的队列容量（等待输出的批次数），默认16
+     */
+    public ExcelBatchIngester outputQueueCapacity(int capacity) {
+        this.outputQueueCapacity = requirePositive(capacity, "输出队列容量");
+        return this;
+    }
+
+    /**
+     * @param bytes 大于该字节数的文件改为流式读取，默认 {@link #DEFAULT_STREAMING_THRESHOLD}；传0表示全部流式读取
+     */
+    public ExcelBatchIngester streamingThreshold(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("流式读取阈值不能为负数: " + bytes);
+        }
+        this.streamingThreshold = bytes;
+        return this;
+    }
+
+    /**
+     * @param rows 流式读取时每批交付的行数，默认 {@link #DEFAULT_CHUNK_SIZE}
+     */
+    public ExcelBatchIngester chunkSize(int rows) {
+        this.chunkSize = requirePositive(rows, "每批行数");
+        return this;
+    }
+
+    /**
+     * 导入目录下的所有 .xls/.xlsx 文件（不含子目录和 ~$ 开头的锁文件），按文件名顺序
+     *
+     * @param directory 目录
+     * @param sink      输出回调
+     * @return 每个文件的处理结果，与文件顺序一致
+     * @throws IOException          目录读取异常
+     * @throws InterruptedException 等待过程中被中断
+     */
+    public List<FileResult> ingest(Path directory, IngestSink sink) throws IOException, InterruptedException {
+        if (!Files.isDirectory(directory)) {
+            throw new IllegalArgumentException("不是目录: " + directory);
+        }
+        List<Path> files;
+        try (Stream<Path> entries = Files.list(directory)) {
+            files = entries.filter(Files::isRegularFile)
+                    .filter(ExcelBatchIngester::isExcelFile)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        return ingest(files, sink);
+    }
+
+    /**
+     * 导入文件列表
+     *
+     * @param files 文件路径
+     * @param sink  输出回调
+     * @return 每个文件的处理结果，与文件顺序一致
+     * @throws InterruptedException 等待过程中被中断，此时已停止所有阶段
+     */
+    public List<FileResult> ingest(List<Path> files, IngestSink sink) throws InterruptedException {
+        Objects.requireNonNull(sink, "sink");
+        List<FileTask> tasks = new ArrayList<>(files.size());
+        for (Path file : files) {
+            tasks.add(new FileTask(tasks.size(), file));
+        }
+        if (!tasks.isEmpty()) {
+            new Run(tasks, sink).execute();
+        }
+
+        List<FileResult> results = new ArrayList<>(tasks.size());
+        for (FileTask task : tasks) {
+            results.add(task.toResult());
+        }
+        return results;
+    }
+
+    private static boolean isExcelFile(Path file) {
+        String name = file.getFileName().toString();
+        // 跳过 Office 打开文件时生成的锁文件
+        return !name.startsWith("~$") && (name.endsWith(".xlsx") || name.endsWith(".xls"));
+    }
+
+    private static int requirePositive(int value, String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + "必须大于0: " + value);
+        }
+        return value;
+    }
+
+    /**
+     * 单个文件的处理结果
+     */
+    public static final class FileResult {
+        private final Path file;
+        private final boolean streaming;
+        private final long rowCount;
+        private final long elapsedMillis;
+        private final Throwable error;
+
+        FileResult(Path file, boolean streaming, long rowCount, long elapsedMillis, Throwable error) {
+            this.file = file;
+            this.streaming = streaming;
+            this.rowCount = rowCount;
+            this.elapsedMillis = elapsedMillis;
+            this.error = error;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        /**
+         * @return 是否按流式读取处理
+         */
+        public boolean isStreaming() {
+            return streaming;
+        }
+
+        /**
+         * @return 已交付给输出回调的行数
+         */
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * @return 从开始解析到输出完成（或失败）的耗时
+         */
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /**
+         * @return 失败原因，成功时为 null
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return "FileResult{" + file
+                    + (error == null ? ", success" : ", failed: " + error)
+                    + (streaming ? ", streaming" : "")
+                    + ", rows=" + rowCount
+                    + ", " + elapsedMillis + "ms}";
+        }
+    }
+
+    /**
+     * 文件在各阶段之间共享的处理状态
+     */
+    private static final class FileTask {
+        final int index;
+        final Path file;
+        // 任一阶段失败时置位，之后各阶段跳过该文件
+        final AtomicBoolean failed = new AtomicBoolean();
+        volatile boolean streaming;
+        volatile long startNanos;
+        volatile long endNanos;
+        volatile long rowCount;
+        volatile Throwable error;
+
+        FileTask(int index, Path file) {
+            this.index = index;
+            this.file = file;
+        }
+
+        FileResult toResult() {
+            long elapsed = endNanos == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(endNanos - startNanos);
+            return new FileResult(file, streaming, rowCount, elapsed, error);
+        }
+    }
+
+    /**
+     * 解析阶段的产物：已构建、等待转换的工作簿
+     */
+    private static final class ParsedFile {
+        final FileTask task;
+        final Workbook workbook;
+
+        ParsedFile(FileTask task, Workbook workbook) {
+            this.task = task;
+            this.workbook = workbook;
+        }
+    }
+
+    /**
+     * 输出阶段的工作项：一批行、文件完成或文件失败
+     */
+    private static final class OutputItem {
+        final FileTask task;
+        final int sheetIndex;
+        final String sheetName;
+        final int firstRowIndex;
+        final List<List<String>> rows;
+        final Throwable error;
+
+        private OutputItem(FileTask task, int sheetIndex, String sheetName, int firstRowIndex,
+                           List<List<String>> rows, Throwable error) {
+            this.task = task;
+            this.sheetIndex = sheetIndex;
+            this.sheetName = sheetName;
+            this.firstRowIndex = firstRowIndex;
+            this.rows = rows;
+            this.error = error;
+        }
+
+        static OutputItem rows(FileTask task, int sheetIndex, String sheetName, int firstRowIndex, List<List<String>> rows) {
+            return new OutputItem(task, sheetIndex, sheetName, firstRowIndex, rows, null);
+        }
+
+        static OutputItem done(FileTask task) {
+            return new OutputItem(task, -1, null, 0, null, null);
+        }
+
+        static OutputItem failed(FileTask task, Throwable error) {
+            return new OutputItem(task, -1, null, 0, null, error);
+        }
+
+        boolean isDone() {
+            return rows == null && error == null;
+        }
+    }
+
+    /**
+     * 流式读取的文件已被其他阶段标记为失败，停止解析
+     */
+    private static final class FileAbandonedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        FileAbandonedException() {
+            super(null, null, false, false);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Worker {
+        void run() throws InterruptedException;
+    }
+
+    /**
+     * 一次导入的运行状态
+     */
+    private final class Run {
+        private final ParsedFile endOfParsed = new ParsedFile(null, null);
+        private final OutputItem endOfOutput = OutputItem.done(null);
+
+        private final IngestSink sink;
+        private final Queue<FileTask> pending;
+        private final BlockingQueue<ParsedFile> parsed;
+        private final List<BlockingQueue<OutputItem>> outputs;
+        private final List<ExecutorService> pools = new ArrayList<>();
+        private final AtomicReference<Throwable> fatal = new AtomicReference<>();
+        private final Thread coordinator = Thread.currentThread();
+
+        Run(List<FileTask> tasks, IngestSink sink) {
+            this.sink = sink;
+            this.pending = new ConcurrentLinkedQueue<>(tasks);
+            this.parsed = new ArrayBlockingQueue<>(queueCapacity);
+            List<BlockingQueue<OutputItem>> queues = new ArrayList<>(outputThreads);
+            for (int i = 0; i < outputThreads; i++) {
+                queues.add(new ArrayBlockingQueue<>(outputQueueCapacity));
+            }
+            this.outputs = Collections.unmodifiableList(queues);
+        }
+
+        void execute() throws InterruptedException {
+            try {
+                List<Future<?>> parsers = start("parse", parseThreads, i -> this::parseLoop);
+                List<Future<?>> converters = start("convert", convertThreads, i -> this::convertLoop);
+                List<Future<?>> writers = start("output", outputThreads, i -> () -> outputLoop(outputs.get(i)));
+
+                // 上游全部结束后向下游每个线程发送结束标记
+                await(parsers);
+                for (int i = 0; i < convertThreads; i++) {
+                    parsed.put(endOfParsed);
+                }
+                await(converters);
+                for (BlockingQueue<OutputItem> queue : outputs) {
+                    queue.put(endOfOutput);
+                }
+                await(writers);
+            } catch (InterruptedException e) {
+                Throwable cause = fatal.get();
+                if (cause != null) {
+                    throw new IllegalStateException("批量导入异常终止", cause);
+                }
+                throw e;
+            } finally {
+                for (ExecutorService pool : pools) {
+                    pool.shutdownNow();
+                }
+            }
+        }
+
+        private List<Future<?>> start(String stage, int threads, IntFunction<Worker> workers) {
+            AtomicInteger counter = new AtomicInteger();
+            ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+                Thread thread = new Thread(r, "excel-ingest-" + stage + "-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            pools.add(pool);
+
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                Worker worker = workers.apply(i);
+                futures.add(pool.submit(() -> {
+                    try {
+                        worker.run();
+                    } catch (InterruptedException e) {
+                        // 其他线程异常终止时由 abort 中断
+                        Thread.currentThread().interrupt();
+                    } catch (RuntimeException | Error e) {
+                        abort(e);
+                        throw e;
+                    }
+                }));
+            }
+            return futures;
+        }
+
+        /**
+         * 某个阶段的线程意外终止（不属于单个文件的失败），停止所有阶段，避免其余线程在队列上永久阻塞
+         */
+        private void abort(Throwable cause) {
+            if (fatal.compareAndSet(null, cause)) {
+                for (ExecutorService pool : pools) {
+                    pool.shutdownNow();
+                }
+                coordinator.interrupt();
+            }
+        }
+
+        private void await(List<Future<?>> futures) throws InterruptedException {
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("批量导入异常终止", e.getCause());
+                }
+            }
+            if (fatal.get() != null) {
+                throw new IllegalStateException("批量导入异常终止", fatal.get());
+            }
+        }
+
+        // ---------------- 解析阶段 ----------------
+
+        private void parseLoop() throws InterruptedException {
+            FileTask task;
+            while ((task = pending.poll()) != null) {
+                task.startNanos = System.nanoTime();
+                Workbook workbook = null;
+                try {
+                    if (Files.size(task.file) > streamingThreshold) {
+                        task.streaming = true;
+                        stream(task);
+                    } else {
+                        workbook = WorkbookFactory.create(task.file.toFile(), null, true);
+                        parsed.put(new ParsedFile(task, workbook));
+                        workbook = null;
+                    }
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    checkInterrupted();
+                    fail(task, e);
+                } finally {
+                    closeQuietly(workbook);
+                }
+            }
+        }
+
+        /**
+         * 流式读取所有工作表，按批送入输出阶段
+         */
+        private void stream(FileTask task) throws Exception {
+            ExcelPOIReaderUtil.readAllSheetsStreaming(task.file.toString(), new SheetHandler() {
+                private ChunkingHandler current;
+
+                @Override
+                public RowHandler startSheet(int sheetIndex, String sheetName) {
+                    current = new ChunkingHandler(task, sheetIndex, sheetName);
+                    return current;
+                }
+
+                @Override
+                public void endSheet(int sheetIndex) {
+                    current.flush(true);
+                }
+            }, new StringDeduplicator());
+            emit(OutputItem.done(task));
+        }
+
+        /**
+         * 把流式读取的行攒成批次；输出队列满时在解析线程中阻塞，限制驻留内存的行数
+         */
+        private final class ChunkingHandler implements RowHandler {
+            private final FileTask task;
+            private final int sheetIndex;
+            private final String sheetName;
+            private List<List<String>> rows = new ArrayList<>(chunkSize);
+            private int firstRowIndex = -1;
+            private boolean delivered;
+
+            ChunkingHandler(FileTask task, int sheetIndex, String sheetName) {
+                this.task = task;
+                this.sheetIndex = sheetIndex;
+                this.sheetName = sheetName;
+            }
+
+            @Override
+            public void handleRow(int rowIndex, List<String> rowData) {
+                if (task.failed.get()) {
+                    throw new FileAbandonedException();
+                }
+                if (rows.isEmpty()) {
+                    firstRowIndex = rowIndex;
+                }
+                rows.add(rowData);
+                if (rows.size() >= chunkSize) {
+                    flush(false);
+                }
+            }
+
+            /**
+             * @param last 工作表已读完；空工作表也交付一个空批次，与构建工作簿的方式一致
+             */
+            void flush(boolean last) {
+                if (rows.isEmpty() && (delivered || !last)) {
+                    return;
+                }
+                try {
+                    emit(OutputItem.rows(task, sheetIndex, sheetName, Math.max(firstRowIndex, 0), rows));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new FileAbandonedException();
+                }
+                delivered = true;
+                rows = new ArrayList<>(chunkSize);
+            }
+        }
+
+        // ---------------- 转换阶段 ----------------
+
+        private void convertLoop() throws InterruptedException {
+            while (true) {
+                ParsedFile item = parsed.take();
+                if (item == endOfParsed) {
+                    return;
+                }
+                FileTask task = item.task;
+                try {
+                    convert(task, item.workbook);
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    checkInterrupted();
+                    fail(task, e);
+                } finally {
+                    closeQuietly(item.workbook);
+                }
+            }
+        }
+
+        private void convert(FileTask task, Workbook workbook) throws InterruptedException {
+            StringDeduplicator deduplicator = new StringDeduplicator();
+            for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+                if (task.failed.get()) {
+                    return;
+                }
+                Sheet sheet = workbook.getSheetAt(i);
+                List<List<String>> rows = ExcelPOIReaderUtil.readSheetWithMerge(sheet, deduplicator);
+                emit(OutputItem.rows(task, i, sheet.getSheetName(), Math.max(sheet.getFirstRowNum(), 0), rows));
+            }
+            emit(OutputItem.done(task));
+        }
+
+        // ---------------- 输出阶段 ----------------
+
+        private void outputLoop(BlockingQueue<OutputItem> queue) throws InterruptedException {
+            while (true) {
+                OutputItem item = queue.take();
+                if (item == endOfOutput) {
+                    return;
+                }
+                FileTask task = item.task;
+                if (item.error != null) {
+                    deliverFailure(task, item.error);
+                    continue;
+                }
+                if (task.failed.get()) {
+                    // 已失败的文件，失败通知会随后到达
+                    continue;
+                }
+                try {
+                    if (item.isDone()) {
+                        sink.onFileComplete(task.file);
+                        task.endNanos = System.nanoTime();
+                    } else {
+                        sink.accept(task.file, item.sheetIndex, item.sheetName, item.firstRowIndex, item.rows);
+                        task.rowCount += item.rows.size();
+                    }
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    checkInterrupted();
+                    // 当前就在该文件的输出线程中，直接通知，不经过队列
+                    if (task.failed.compareAndSet(false, true)) {
+                        deliverFailure(task, e);
+                    }
+                }
+            }
+        }
+
+        private void deliverFailure(FileTask task, Throwable error) {
+            task.error = error;
+            task.endNanos = System.nanoTime();
+            try {
+                sink.onFileFailed(task.file, error);
+            } catch (RuntimeException e) {
+                error.addSuppressed(e);
+            }
+        }
+
+        // ---------------- 公共 ----------------
+
+        /**
+         * 把工作项放入文件所属的输出队列，同一文件总是进入同一队列，保证交付顺序
+         */
+        private void emit(OutputItem item) throws InterruptedException {
+            outputs.get(item.task.index % outputs.size()).put(item);
+        }
+
+        /**
+         * 解析或转换阶段的文件失败，只通知一次
+         */
+        private void fail(FileTask task, Throwable error) throws InterruptedException {
+            if (task.failed.compareAndSet(false, true)) {
+                emit(OutputItem.failed(task, error));
+            }
+        }
+
+        /**
+         * 单个文件的异常可能是中断造成的，此时结束整个阶段而不是记为文件失败
+         */
+        private void checkInterrupted() throws InterruptedException {
+            if (Thread.interrupted() || fatal.get() != null) {
+                throw new InterruptedException();
+            }
+        }
+
+        private void closeQuietly(Workbook workbook) {
+            if (workbook != null) {
+                try {
+                    workbook.close();
+                } catch (IOException e) {
+                    // 只读打开，关闭失败不影响结果
+                }
+            }
+        }
+    }
+}
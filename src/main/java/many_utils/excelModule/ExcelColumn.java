@@ -0,0 +1,21 @@
+package many_utils.excelModule;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 指定字段对应的表头名称，未标注的字段按字段名匹配表头
+ *
+ * @see ExcelRowBinder
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface ExcelColumn {
+
+    /**
+     * @return 表头名称（比较前去掉首尾空白）
+     */
+    String value();
+}
@@ -0,0 +1,227 @@
+package many_utils.excelModule;
+
+import com.alibaba.fastjson2.JSONWriter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellReference;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 把工作表导出为 JSON（UTF-8），边读边写，合并单元格已填充
+ * <p>
+ * 行由流式读取器逐行交给 fastjson2 的 {@link JSONWriter}，缓冲区超过 {@value #FLUSH_THRESHOLD} 字节就写入输出流，
+ * 内存占用与工作表大小无关，不会像 {@code JSON.toJSONString(readExcelWithMerge(...))} 那样同时持有数据和整段 JSON 两份拷贝。
+ * <p>
+ * 两种格式：
+ * <ul>
+ *     <li>{@link Layout#ARRAYS}：{@code [["姓名","部门"],["张三","研发"]]}，每行一个字符串数组</li>
+ *     <li>{@link Layout#OBJECTS}：{@code [{"姓名":"张三","部门":"研发"}]}，以表头为键，每行一个对象</li>
+ * </ul>
+ * 按对象导出时，读取选项指定了表头名称则以这些名称为键；否则读到的第一行作为表头，空表头以列字母（A、B…）代替，
+ * 重名的表头依次加后缀 _2、_3。值按所在的列对应表头，行首或行尾缺失的值为空字符串，超出表头的列以列字母为键。
+ */
+public final class ExcelJsonExporter {
+
+    /**
+     * 导出格式
+     */
+    public enum Layout {
+        /**
+         * 每行一个字符串数组
+         */
+        ARRAYS,
+        /**
+         * 每行一个以表头为键的对象
+         */
+        OBJECTS
+    }
+
+    /**
+     * 缓冲区超过该字节数时写入输出流
+     */
+    static final int FLUSH_THRESHOLD = 64 * 1024;
+
+    private ExcelJsonExporter() {
+    }
+
+    /**
+     * 导出整个工作表
+     *
+     * @param filePath   Excel 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @param layout     导出格式
+     * @param out        输出流，导出完成后不关闭
+     * @return 导出的数据行数（不含作为键的表头行）
+     * @throws IOException 文件读取或写入异常
+     */
+    public static long export(String filePath, int sheetIndex, Layout layout, OutputStream out) throws IOException {
+        return export(filePath, sheetIndex, ReadOptions.all(), layout, out);
+    }
+
+    /**
+     * 按读取选项导出工作表
+     * <p>
+     * xlsx 的读取选项在流式解析中直接生效；xls 的流式读取不支持读取选项，指定了行列范围时改为构建工作簿读取，
+     * 内存占用与所选数据量成正比。公式取值方式为 {@link FormulaMode#EVALUATE} 时同样构建工作簿读取。
+     *
+     * @param filePath   Excel 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @param options    读取选项（行范围、列投影）
+     * @param layout     导出格式
+     * @param out        输出流，导出完成后不关闭
+     * @return 导出的数据行数（不含作为键的表头行）
+     * @throws IOException 文件读取或写入异常
+     */
+    public static long export(String filePath, int sheetIndex, ReadOptions options, Layout layout,
+                              OutputStream out) throws IOException {
+        // 指定了列投影时行数据按投影顺序排列，否则按列号对应表头
+        boolean projected = options.hasHeaders() || options.getColumns() != null;
+        JsonRowWriter writer = new JsonRowWriter(layout, options.hasHeaders() ? options.getHeaderNames() : null, projected, out);
+        try {
+            if (options.selectsAll()) {
+                ExcelPOIReaderUtil.readExcelWithMergeStreaming(filePath, sheetIndex, writer);
+            } else if (filePath.endsWith(".xlsx") && options.getFormulaMode() == FormulaMode.CACHED) {
+                ExcelPOIReaderUtil.readExcelWithMergeStreaming(filePath, sheetIndex, options, writer);
+            } else {
+                writeWorkbookRows(filePath, sheetIndex, options, writer);
+            }
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            // 行回调中的写入异常
+            throw e.getCause();
+        } finally {
+            writer.close();
+        }
+        return writer.getRowCount();
+    }
+
+    /**
+     * 构建工作簿读取所选行，每行第一个值的列号从工作表中取得
+     */
+    private static void writeWorkbookRows(String filePath, int sheetIndex, ReadOptions options,
+                                          JsonRowWriter writer) throws IOException {
+        Workbook workbook = WorkbookOpener.open(new File(filePath), null);
+        try {
+            Sheet sheet = workbook.getSheetAt(sheetIndex);
+            List<List<String>> rows = ExcelPOIReaderUtil.readSheetWithMerge(sheet, options);
+            int firstRow = Math.max(sheet.getFirstRowNum(), options.getFirstRow());
+            for (int i = 0; i < rows.size(); i++) {
+                Row row = sheet.getRow(firstRow + i);
+                writer.handleRow(firstRow + i, row == null ? 0 : Math.max(row.getFirstCellNum(), 0), rows.get(i));
+            }
+        } finally {
+            WorkbookOpener.close(workbook);
+        }
+    }
+
+    /**
+     * 把每行写入 JSONWriter 的行回调
+     */
+    private static final class JsonRowWriter implements RowHandler {
+        private final Layout layout;
+        private final boolean projected;
+        private final OutputStream out;
+        private final JSONWriter json = JSONWriter.ofUTF8();
+        private List<String> keys;
+        private long rowCount;
+
+        JsonRowWriter(Layout layout, List<String> keys, boolean projected, OutputStream out) {
+            this.layout = layout;
+            this.keys = keys;
+            this.projected = projected;
+            this.out = out;
+            json.startArray();
+        }
+
+        @Override
+        public void handleRow(int rowIndex, List<String> rowData) {
+            handleRow(rowIndex, 0, rowData);
+        }
+
+        @Override
+        public void handleRow(int rowIndex, int firstColumn, List<String> rowData) {
+            // 列投影的行已按表头对齐
+            int offset = projected ? 0 : firstColumn;
+            if (layout == Layout.OBJECTS && keys == null) {
+                keys = toKeys(offset, rowData);
+                return;
+            }
+
+            if (rowCount > 0) {
+                json.writeComma();
+            }
+            if (layout == Layout.ARRAYS) {
+                json.startArray();
+                for (int i = 0; i < rowData.size(); i++) {
+                    if (i > 0) {
+                        json.writeComma();
+                    }
+                    json.writeString(rowData.get(i));
+                }
+                json.endArray();
+            } else {
+                json.startObject();
+                int width = Math.max(keys.size(), offset + rowData.size());
+                for (int i = 0; i < width; i++) {
+                    json.writeName(i < keys.size() ? keys.get(i) : CellReference.convertNumToColString(i));
+                    json.writeColon();
+                    int j = i - offset;
+                    json.writeString(j >= 0 && j < rowData.size() ? rowData.get(j) : "");
+                }
+                json.endObject();
+            }
+            rowCount++;
+
+            if (json.size() >= FLUSH_THRESHOLD) {
+                try {
+                    json.flushTo(out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        void finish() throws IOException {
+            json.endArray();
+            json.flushTo(out);
+        }
+
+        long getRowCount() {
+            return rowCount;
+        }
+
+        void close() {
+            json.close();
+        }
+
+        /**
+         * 表头行转为对象的键，按列号排列：空表头及表头行首之前的列用列字母代替，重名加序号后缀
+         *
+         * @param offset 表头行第一个值所在的列
+         */
+        private static List<String> toKeys(int offset, List<String> header) {
+            List<String> result = new ArrayList<>(offset + header.size());
+            Set<String> used = new HashSet<>();
+            for (int i = 0; i < offset + header.size(); i++) {
+                String cell = i < offset ? null : header.get(i - offset);
+                String value = cell == null ? "" : cell.trim();
+                String base = value.isEmpty() ? CellReference.convertNumToColString(i) : value;
+                String key = base;
+                for (int n = 2; !used.add(key); n++) {
+                    key = base + "_" + n;
+                }
+                result.add(key);
+            }
+            return result;
+        }
+    }
+}
@@ -1,21 +1,85 @@
 package many_utils.excelModule;
 
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
 
-import java.io.FileInputStream;
+import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 /**
  * 使用 Apache POI 读取 Excel 文件，支持处理合并单元格
  */
 public class ExcelPOIReaderUtil {
 
+    private static final Logger LOG = Logger.getLogger(ExcelPOIReaderUtil.class.getName());
+
+    /**
+     * 自动选择读取方式时允许构建工作簿使用的堆内存，默认为最大堆的四分之一
+     */
+    private static volatile long heapBudget = Runtime.getRuntime().maxMemory() / 4;
+
+    /**
+     * 读取指标接收方，未注册时为 null
+     */
+    private static volatile MetricsSink metricsSink;
+
+    /**
+     * 注册读取指标接收方，之后每读完一个工作表回调一次；传 null 关闭指标收集（默认关闭）
+     * <p>
+     * 收集范围：readExcelWithMerge、readExcelWithMergeStreaming、readAllSheets 和 visitExcel。
+     * 关闭时读取路径只多一次 null 判断；开启时按阶段计时，不在单元格循环中增加开销。
+     *
+     * @param sink 指标接收方
+     */
+    public static void setMetricsSink(MetricsSink sink) {
+        metricsSink = sink;
+    }
+
+    /**
+     * @return 当前注册的读取指标接收方，未注册时返回 null
+     */
+    public static MetricsSink getMetricsSink() {
+        return metricsSink;
+    }
+
+    /**
+     * 设置自动选择读取方式时的堆预算：估算的工作簿内存加结果内存超过预算时改为流式读取
+     * <p>
+     * 同时读取多个文件时按并发数分摊，例如4个线程并发读取时设为可用堆的四分之一以下。
+     *
+     * @param bytes 堆预算（字节）
+     */
+    public static void setHeapBudget(long bytes) {
+        if (bytes <= 0) {
+            throw new IllegalArgumentException("堆预算必须大于0: " + bytes);
+        }
+        heapBudget = bytes;
+    }
+
+    public static long getHeapBudget() {
+        return heapBudget;
+    }
+
     /**
      * 读取 Excel 文件为字符串列表，自动处理合并单元格
+     * <p>
+     * 根据工作簿大小和堆预算自动选择构建工作簿或流式读取，两种方式的结果相同，见 {@link #setHeapBudget(long)}
      *
      * @param filePath Excel 文件路径
      * @param sheetIndex 工作表索引（从0开始）
@@ -23,29 +87,375 @@ public class ExcelPOIReaderUtil {
      * @throws IOException 文件读取异常
      */
     public static List<List<String>> readExcelWithMerge(String filePath, int sheetIndex) throws IOException {
-        FileInputStream fis = new FileInputStream(filePath);
-        Workbook workbook = null;
+        return readExcelWithMerge(filePath, sheetIndex, ReadOptions.all());
+    }
 
+    /**
+     * 确定 readExcelWithMerge 的读取方式：选项中指定了就按指定的方式；
+     * 否则在流式读取支持这些选项时，估算构建工作簿所需的内存，超过堆预算则流式读取。
+     * 选择结果记录到日志：改为流式读取时为 INFO，其余为 FINE
+     *
+     * @param estimator 估算工作簿大小，只在需要时调用一次，无法估算时返回 null
+     */
+    static ReadStrategy selectStrategy(String filePath, int sheetIndex, ReadOptions options,
+                                       Supplier<WorkbookSizeEstimate> estimator) {
+        if (options.getStrategy() != ReadStrategy.AUTO) {
+            LOG.log(Level.FINE, "{0}#{1}: 按指定方式 {2} 读取", new Object[]{filePath, sheetIndex, options.getStrategy()});
+            return options.getStrategy();
+        }
+        // 公式计算需要工作簿对象；xls 的流式读取不支持行列选项
+        if (options.getFormulaMode() != FormulaMode.CACHED || (!filePath.endsWith(".xlsx") && !options.selectsAll())) {
+            LOG.log(Level.FINE, "{0}#{1}: 流式读取不支持 {2}，构建工作簿读取", new Object[]{filePath, sheetIndex, options});
+            return ReadStrategy.DOM;
+        }
+
+        long budget = heapBudget;
+        if (WorkbookSizeEstimate.fitsWithinBudget(filePath, budget)) {
+            LOG.log(Level.FINE, "{0}#{1}: 文件较小，最坏情况下也不超过堆预算 {2}MB，构建工作簿读取",
+                    new Object[]{filePath, sheetIndex, budget >> 20});
+            return ReadStrategy.DOM;
+        }
+
+        WorkbookSizeEstimate estimate = estimator.get();
+        if (estimate == null) {
+            // 无法估算时按原方式读取，由读取过程报告具体错误
+            LOG.log(Level.FINE, "{0}#{1}: 无法估算工作簿大小，构建工作簿读取", new Object[]{filePath, sheetIndex});
+            return ReadStrategy.DOM;
+        }
+
+        long required = estimate.getEstimatedDomBytes() + estimate.getEstimatedResultBytes();
+        if (required > budget) {
+            LOG.log(Level.INFO, "{0}#{1}: 预计需要 {2}MB，超过堆预算 {3}MB，改为流式读取，{4}",
+                    new Object[]{filePath, sheetIndex, required >> 20, budget >> 20, estimate});
+            if (estimate.getEstimatedResultBytes() > budget) {
+                LOG.log(Level.WARNING, "{0}#{1}: 结果本身预计超过堆预算，建议使用 readExcelWithMergeStreaming 逐行处理",
+                        new Object[]{filePath, sheetIndex});
+            }
+            return ReadStrategy.STREAMING;
+        }
+        LOG.log(Level.FINE, "{0}#{1}: 预计需要 {2}MB，堆预算 {3}MB，构建工作簿读取，{4}",
+                new Object[]{filePath, sheetIndex, required >> 20, budget >> 20, estimate});
+        return ReadStrategy.DOM;
+    }
+
+    /**
+     * 估算工作簿大小，失败时记录日志并返回 null
+     */
+    static WorkbookSizeEstimate estimateQuietly(String filePath, int sheetIndex) {
         try {
-            // 根据文件扩展名选择对应的工作簿实现
-            if (filePath.endsWith(".xlsx")) {
-                workbook = new XSSFWorkbook(fis);
-            } else if (filePath.endsWith(".xls")) {
-                workbook = new HSSFWorkbook(fis);
+            return WorkbookSizeEstimate.of(filePath, sheetIndex);
+        } catch (IOException | RuntimeException e) {
+            LOG.log(Level.FINE, filePath + "#" + sheetIndex + ": 无法估算工作簿大小", e);
+            return null;
+        }
+    }
+
+    /**
+     * 流式读取 Excel 文件，逐行回调，自动处理合并单元格
+     * <p>
+     * xlsx 基于 XSSF 事件模型，xls 基于 HSSF 事件模型，都不构建完整的工作簿对象，适合大文件读取
+     *
+     * @param filePath Excel 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @param handler 行回调
+     * @throws IOException 文件读取异常
+     */
+    public static void readExcelWithMergeStreaming(String filePath, int sheetIndex, RowHandler handler) throws IOException {
+        readExcelWithMergeStreaming(filePath, sheetIndex, handler, new StringDeduplicator());
+    }
+
+    /**
+     * 流式读取 Excel 文件，逐行回调，自动处理合并单元格，重复的字符串共享同一实例
+     *
+     * @param filePath Excel 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @param handler 行回调
+     * @param deduplicator 字符串去重器，读取结束后可查看命中率
+     * @throws IOException 文件读取异常
+     */
+    public static void readExcelWithMergeStreaming(String filePath, int sheetIndex, RowHandler handler,
+                                                   StringDeduplicator deduplicator) throws IOException {
+        ReadMetrics.Recorder recorder = ReadMetrics.Recorder.start(metricsSink, filePath, true);
+        RowHandler target = recorder == null ? handler : countingHandler(handler, recorder);
+        if (filePath.endsWith(".xlsx")) {
+            XlsxStreamingReader.read(filePath, sheetIndex, target, deduplicator);
+        } else if (filePath.endsWith(".xls")) {
+            XlsStreamingReader.read(filePath, sheetIndex, target, deduplicator);
+        } else {
+            throw new IllegalArgumentException("不支持的文件格式");
+        }
+        if (recorder != null) {
+            recorder.phase(ReadMetrics.Phase.PARSE);
+            recorder.finish(sheetIndex, null);
+        }
+    }
+
+    /**
+     * 依次流式读取 Excel 文件的所有工作表，只打开一次文件，自动处理合并单元格
+     *
+     * @param filePath Excel 文件路径
+     * @param handler 工作表回调
+     * @param deduplicator 字符串去重器
+     * @throws IOException 文件读取异常
+     */
+    static void readAllSheetsStreaming(String filePath, SheetHandler handler, StringDeduplicator deduplicator) throws IOException {
+        if (filePath.endsWith(".xlsx")) {
+            XlsxStreamingReader.readSheets(filePath, handler, deduplicator);
+        } else if (filePath.endsWith(".xls")) {
+            XlsStreamingReader.readSheets(filePath, handler, deduplicator);
+        } else {
+            throw new IllegalArgumentException("不支持的文件格式");
+        }
+    }
+
+    /**
+     * 流式读取时统计行数和单元格数
+     */
+    private static RowHandler countingHandler(RowHandler handler, ReadMetrics.Recorder recorder) {
+        return new RowHandler() {
+            @Override
+            public void handleRow(int rowIndex, List<String> rowData) {
+                recorder.rows(1, rowData.size());
+                handler.handleRow(rowIndex, rowData);
+            }
+
+            @Override
+            public void handleRow(int rowIndex, int firstColumn, List<String> rowData) {
+                recorder.rows(1, rowData.size());
+                handler.handleRow(rowIndex, firstColumn, rowData);
+            }
+        };
+    }
+
+    /**
+     * 按读取选项读取 Excel 文件，自动处理合并单元格
+     * <p>
+     * 读取方式由 {@link ReadOptions#strategy(ReadStrategy)} 指定，默认自动选择
+     *
+     * @param filePath Excel 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @param options 读取选项（行范围、列投影、公式取值方式、读取方式）
+     * @return 解析后的字符串数据列表
+     * @throws IOException 文件读取异常
+     */
+    public static List<List<String>> readExcelWithMerge(String filePath, int sheetIndex, ReadOptions options) throws IOException {
+        return readExcelWithMerge(filePath, sheetIndex, options, selectStrategy(filePath, sheetIndex, options,
+                () -> estimateQuietly(filePath, sheetIndex)), false);
+    }
+
+    /**
+     * 按已确定的读取方式读取
+     *
+     * @param interruptible 为 true 时每行检查线程的中断标志，已中断则抛出 CancellationException；
+     *                      构建工作簿的过程不能中断，在构建完成后检查
+     */
+    static List<List<String>> readExcelWithMerge(String filePath, int sheetIndex, ReadOptions options,
+                                                 ReadStrategy strategy, boolean interruptible) throws IOException {
+        if (strategy == ReadStrategy.STREAMING) {
+            List<List<String>> result = new ArrayList<>();
+            RowHandler collector = (rowIndex, rowData) -> {
+                if (interruptible) {
+                    checkInterrupted();
+                }
+                result.add(rowData);
+            };
+            if (options.selectsAll()) {
+                readExcelWithMergeStreaming(filePath, sheetIndex, collector);
             } else {
-                throw new IllegalArgumentException("不支持的文件格式");
+                readExcelWithMergeStreaming(filePath, sheetIndex, options, collector);
+            }
+            return result;
+        }
+
+        ReadMetrics.Recorder recorder = ReadMetrics.Recorder.start(metricsSink, filePath, false);
+        return readWorkbook(WorkbookOpener.open(new File(filePath), recorder), sheetIndex, options, recorder, interruptible);
+    }
+
+    /**
+     * 读取已打开工作簿的一个工作表，读完后关闭工作簿
+     */
+    private static List<List<String>> readWorkbook(Workbook workbook, int sheetIndex, ReadOptions options,
+                                                   ReadMetrics.Recorder recorder, boolean interruptible) throws IOException {
+        try {
+            if (recorder != null) {
+                recorder.phase(ReadMetrics.Phase.PARSE);
             }
 
             Sheet sheet = workbook.getSheetAt(sheetIndex);
-            return readSheetWithMerge(sheet);
-        } finally {
-            if (workbook != null) {
-                workbook.close();
+            List<List<String>> result = readSheetWithMerge(sheet, options, new StringDeduplicator(), recorder, interruptible);
+            if (recorder != null) {
+                recorder.finish(sheetIndex, sheet.getSheetName());
             }
-            fis.close();
+            return result;
+        } finally {
+            WorkbookOpener.close(workbook);
+        }
+    }
+
+    /**
+     * 读取 Excel 文件为字符串列表，自动处理合并单元格
+     *
+     * @param file Excel 文件
+     * @param sheetIndex 工作表索引（从0开始）
+     * @return 解析后的字符串数据列表
+     * @throws IOException 文件读取异常
+     */
+    public static List<List<String>> readExcelWithMerge(Path file, int sheetIndex) throws IOException {
+        return readExcelWithMerge(file.toString(), sheetIndex, ReadOptions.all());
+    }
+
+    /**
+     * 按读取选项读取 Excel 文件，自动处理合并单元格
+     *
+     * @param file Excel 文件
+     * @param sheetIndex 工作表索引（从0开始）
+     * @param options 读取选项（行范围、列投影、公式取值方式、读取方式）
+     * @return 解析后的字符串数据列表
+     * @throws IOException 文件读取异常
+     */
+    public static List<List<String>> readExcelWithMerge(Path file, int sheetIndex, ReadOptions options) throws IOException {
+        return readExcelWithMerge(file.toString(), sheetIndex, options);
+    }
+
+    /**
+     * 读取 Excel 文件为字符串列表，自动处理合并单元格
+     *
+     * @param file Excel 文件
+     * @param sheetIndex 工作表索引（从0开始）
+     * @return 解析后的字符串数据列表
+     * @throws IOException 文件读取异常
+     */
+    public static List<List<String>> readExcelWithMerge(File file, int sheetIndex) throws IOException {
+        return readExcelWithMerge(file.getPath(), sheetIndex, ReadOptions.all());
+    }
+
+    /**
+     * 按读取选项读取 Excel 文件，自动处理合并单元格
+     *
+     * @param file Excel 文件
+     * @param sheetIndex 工作表索引（从0开始）
+     * @param options 读取选项（行范围、列投影、公式取值方式、读取方式）
+     * @return 解析后的字符串数据列表
+     * @throws IOException 文件读取异常
+     */
+    public static List<List<String>> readExcelWithMerge(File file, int sheetIndex, ReadOptions options) throws IOException {
+        return readExcelWithMerge(file.getPath(), sheetIndex, options);
+    }
+
+    /**
+     * 从文件通道读取 Excel 数据，自动处理合并单元格
+     * <p>
+     * 只读映射整个文件，按文件头识别格式，构建工作簿读取。通道由调用方关闭
+     *
+     * @param channel 可读的文件通道
+     * @param sheetIndex 工作表索引（从0开始）
+     * @param options 读取选项（行范围、列投影、公式取值方式），不支持流式读取
+     * @return 解析后的字符串数据列表
+     * @throws IOException 文件读取异常
+     */
+    public static List<List<String>> readExcelWithMerge(FileChannel channel, int sheetIndex, ReadOptions options) throws IOException {
+        requireDom(options);
+        ReadMetrics.Recorder recorder = ReadMetrics.Recorder.start(metricsSink, "<channel>", channel.size(), false);
+        return readWorkbook(WorkbookOpener.open(channel, recorder), sheetIndex, options, recorder, false);
+    }
+
+    /**
+     * 从内存数据读取 Excel，自动处理合并单元格，适合处理上传的文件
+     * <p>
+     * 读取缓冲区 position 到 limit 之间的数据，不改变缓冲区的位置，按文件头识别格式，构建工作簿读取。
+     * xlsx 直接在缓冲区上按需解压各部件，不复制数据；xls 复制一次
+     *
+     * @param data Excel 文件内容，可以是堆外或映射的缓冲区
+     * @param sheetIndex 工作表索引（从0开始）
+     * @param options 读取选项（行范围、列投影、公式取值方式），不支持流式读取
+     * @return 解析后的字符串数据列表
+     * @throws IOException 数据读取异常
+     */
+    public static List<List<String>> readExcelWithMerge(ByteBuffer data, int sheetIndex, ReadOptions options) throws IOException {
+        requireDom(options);
+        ReadMetrics.Recorder recorder = ReadMetrics.Recorder.start(metricsSink, "<memory>", data.remaining(), false);
+        return readWorkbook(WorkbookOpener.open(data, recorder), sheetIndex, options, recorder, false);
+    }
+
+    private static void requireDom(ReadOptions options) {
+        if (options.getStrategy() == ReadStrategy.STREAMING) {
+            throw new IllegalArgumentException("通道和内存数据不支持流式读取");
+        }
+    }
+
+    /**
+     * 按读取选项流式读取 xlsx 文件，跳过所选范围之外的单元格，读完最后一行后停止解析
+     *
+     * @param filePath xlsx 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @param options 读取选项（行范围、列投影）
+     * @param handler 行回调
+     * @throws IOException 文件读取异常
+     */
+    public static void readExcelWithMergeStreaming(String filePath, int sheetIndex, ReadOptions options,
+                                                   RowHandler handler) throws IOException {
+        if (!filePath.endsWith(".xlsx")) {
+            throw new IllegalArgumentException("流式读取仅支持 .xlsx 文件");
+        }
+        ReadMetrics.Recorder recorder = ReadMetrics.Recorder.start(metricsSink, filePath, true);
+        XlsxStreamingReader.read(filePath, sheetIndex, options, recorder == null ? handler : countingHandler(handler, recorder));
+        if (recorder != null) {
+            recorder.phase(ReadMetrics.Phase.PARSE);
+            recorder.finish(sheetIndex, null);
         }
     }
 
+    /**
+     * 读取工作表名称，不构建完整的工作簿对象
+     *
+     * @param filePath Excel 文件路径
+     * @return 按工作表顺序排列的名称
+     * @throws IOException 文件读取异常
+     */
+    public static List<String> getSheetNames(String filePath) throws IOException {
+        if (filePath.endsWith(".xlsx")) {
+            return XlsxStreamingReader.getSheetNames(filePath);
+        } else if (filePath.endsWith(".xls")) {
+            return XlsStreamingReader.getSheetNames(filePath);
+        }
+        throw new IllegalArgumentException("不支持的文件格式");
+    }
+
+    /**
+     * 按需逐行读取 xlsx 文件，自动处理合并单元格
+     * <p>
+     * 行在消费时才解析，提前结束（如校验失败）时不再解析剩余内容；流关闭时释放文件，需配合 try-with-resources 使用：
+     * <pre>
+     * try (Stream&lt;List&lt;String&gt;&gt; rows = ExcelPOIReaderUtil.streamExcelWithMerge(path, 0)) {
+     *     rows.limit(10).forEach(System.out::println);
+     * }
+     * </pre>
+     *
+     * @param filePath xlsx 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @return 行数据流
+     * @throws IOException 文件读取异常
+     */
+    public static Stream<List<String>> streamExcelWithMerge(String filePath, int sheetIndex) throws IOException {
+        return streamExcelWithMerge(filePath, sheetIndex, ReadOptions.all());
+    }
+
+    /**
+     * 按读取选项按需逐行读取 xlsx 文件，自动处理合并单元格
+     *
+     * @param filePath xlsx 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @param options 读取选项（行范围、列投影）
+     * @return 行数据流，关闭时停止解析并释放文件
+     * @throws IOException 文件读取异常
+     */
+    public static Stream<List<String>> streamExcelWithMerge(String filePath, int sheetIndex, ReadOptions options) throws IOException {
+        if (!filePath.endsWith(".xlsx")) {
+            throw new IllegalArgumentException("流式读取仅支持 .xlsx 文件");
+        }
+        return XlsxStreamingReader.iterator(filePath, sheetIndex, options).stream();
+    }
+
     /**
      * 读取工作表数据，处理合并单元格
      *
@@ -53,100 +463,532 @@ public class ExcelPOIReaderUtil {
      * @return 解析后的字符串数据列表
      */
     public static List<List<String>> readSheetWithMerge(Sheet sheet) {
+        return readSheetWithMerge(sheet, new StringDeduplicator());
+    }
+
+    /**
+     * 读取工作表数据，处理合并单元格，重复的字符串共享同一实例
+     *
+     * @param sheet 工作表对象
+     * @param deduplicator 字符串去重器，可跨工作表、工作簿复用，并可读取命中率
+     * @return 解析后的字符串数据列表
+     */
+    public static List<List<String>> readSheetWithMerge(Sheet sheet, StringDeduplicator deduplicator) {
+        return readSheetWithMerge(sheet, ReadOptions.all(), deduplicator);
+    }
+
+    /**
+     * 按读取选项读取工作表数据，处理合并单元格
+     *
+     * @param sheet 工作表对象
+     * @param options 读取选项（行范围、列投影）
+     * @return 解析后的字符串数据列表
+     */
+    public static List<List<String>> readSheetWithMerge(Sheet sheet, ReadOptions options) {
+        return readSheetWithMerge(sheet, options, new StringDeduplicator());
+    }
+
+    /**
+     * 按读取选项读取工作表数据，处理合并单元格，只转换所选范围内的单元格
+     *
+     * @param sheet 工作表对象
+     * @param options 读取选项（行范围、列投影）
+     * @param deduplicator 字符串去重器
+     * @return 解析后的字符串数据列表
+     */
+    public static List<List<String>> readSheetWithMerge(Sheet sheet, ReadOptions options, StringDeduplicator deduplicator) {
+        return readSheetWithMerge(sheet, options, deduplicator, null, false);
+    }
+
+    private static List<List<String>> readSheetWithMerge(Sheet sheet, ReadOptions options, StringDeduplicator deduplicator,
+                                                         ReadMetrics.Recorder recorder, boolean interruptible) {
+        options.validate();
         List<List<String>> result = new ArrayList<>();
+        CellFormatCache formats = CellFormatCache.of(sheet.getWorkbook());
 
-        // 获取合并区域信息
-        List<CellRangeAddress> mergedRegions = sheet.getMergedRegions();
+        // 构建合并区域索引
+        MergedRegionIndex mergedIndex = MergedRegionIndex.of(sheet);
 
         // 确定数据范围
-        int firstRow = sheet.getFirstRowNum();
-        int lastRow = sheet.getLastRowNum();
+        int firstRow = Math.max(sheet.getFirstRowNum(), options.getFirstRow());
+        int lastRow = Math.min(sheet.getLastRowNum(), options.getLastRow());
 
-        // 创建二维数组存储数据
-        Map<String, String> mergedData = new HashMap<>();
+        if (recorder != null) {
+            recorder.phase(ReadMetrics.Phase.MERGE);
+        }
 
-        // 先处理合并单元格，记录合并区域的值
-        for (CellRangeAddress mergedRegion : mergedRegions) {
-            int firstRowNum = mergedRegion.getFirstRow();
-            int lastRowNum = mergedRegion.getLastRow();
-            int firstColNum = mergedRegion.getFirstColumn();
-            int lastColNum = mergedRegion.getLastColumn();
+        if (options.getFormulaMode() == FormulaMode.EVALUATE) {
+            evaluateFormulas(sheet, options, firstRow, lastRow, mergedIndex);
+            if (recorder != null) {
+                recorder.phase(ReadMetrics.Phase.EVALUATE);
+            }
+        }
 
-            // 获取合并区域第一个单元格的值
-            Row firstRowData = sheet.getRow(firstRowNum);
+        // 先处理合并单元格，按区域编号记录每个合并区域左上角单元格的值（左上角可能在所选范围之外）
+        String[] mergedValues = new String[mergedIndex.size()];
+        for (int k = 0; k < mergedIndex.size(); k++) {
+            Row firstRowData = sheet.getRow(mergedIndex.getFirstRow(k));
             String value = "";
             if (firstRowData != null) {
-                Cell firstCell = firstRowData.getCell(firstColNum);
-                value = getCellValueAsString(firstCell);
+                Cell firstCell = firstRowData.getCell(mergedIndex.getFirstColumn(k));
+                value = getCellValueAsString(firstCell, deduplicator, formats);
             }
+            mergedValues[k] = value;
+        }
+        if (recorder != null) {
+            recorder.phase(ReadMetrics.Phase.MERGE);
+        }
 
-            // 记录合并区域所有单元格的值
-            for (int i = firstRowNum; i <= lastRowNum; i++) {
-                for (int j = firstColNum; j <= lastColNum; j++) {
-                    mergedData.put(i + "," + j, value);
+        // 确定输出的列
+        int[] columns = options.getColumns();
+        if (options.hasHeaders()) {
+            int headerRowNum = options.getHeaderRow();
+            Row headerRow = sheet.getRow(headerRowNum);
+            List<String> header = new ArrayList<>();
+            if (headerRow != null && headerRow.getLastCellNum() > 0) {
+                for (int j = 0; j < headerRow.getLastCellNum(); j++) {
+                    int regionId = mergedIndex.find(headerRowNum, j);
+                    header.add(regionId >= 0 ? mergedValues[regionId]
+                            : getCellValueAsString(headerRow.getCell(j), deduplicator, formats));
                 }
             }
+            columns = options.resolveColumns(header);
         }
 
-        // 读取所有行数据
+        // 读取所选行数据
         for (int i = firstRow; i <= lastRow; i++) {
+            if (interruptible) {
+                checkInterrupted();
+            }
             Row row = sheet.getRow(i);
-            List<String> rowData = new ArrayList<>();
+            List<String> rowData;
+
+            if (columns != null) {
+                // 列投影：每行输出固定的列
+                rowData = new ArrayList<>(columns.length);
+                for (int j : columns) {
+                    int regionId = mergedIndex.find(i, j);
+                    if (regionId >= 0) {
+                        rowData.add(mergedValues[regionId]);
+                    } else {
+                        rowData.add(row == null ? "" : getCellValueAsString(row.getCell(j), deduplicator, formats));
+                    }
+                }
+            } else {
+                rowData = new ArrayList<>();
+                if (row != null) {
+                    // 确定行的最大列数
+                    int firstCellNum = row.getFirstCellNum();
+                    int lastCellNum = row.getLastCellNum();
+
+                    if (firstCellNum >= 0 && lastCellNum >= 0) {
+                        for (int j = firstCellNum; j < lastCellNum; j++) {
+                            int regionId = mergedIndex.find(i, j);
+                            if (regionId >= 0) {
+                                // 使用合并单元格的值
+                                rowData.add(mergedValues[regionId]);
+                            } else {
+                                // 普通单元格的值
+                                Cell cell = row.getCell(j);
+                                rowData.add(getCellValueAsString(cell, deduplicator, formats));
+                            }
+                        }
+                    }
+                }
+            }
+            result.add(rowData);
+        }
+
+        if (recorder != null) {
+            recorder.phase(ReadMetrics.Phase.CONVERT);
+            long cells = 0;
+            for (List<String> rowData : result) {
+                cells += rowData.size();
+            }
+            recorder.rows(result.size(), cells);
+            recorder.mergedRegions(mergedIndex.size());
+        }
+        return result;
+    }
+
+    /**
+     * 可中断的读取在每行开始前检查，保留中断标志
+     */
+    private static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("读取已中断");
+        }
+    }
+
+    /**
+     * 用同一个求值器批量计算所选行、表头行和合并区域左上角的公式，结果写回单元格
+     * <p>
+     * 求值器按引用关系先计算被引用的单元格，每个单元格的结果只计算一次并留在缓存中，
+     * 后续公式引用同一单元格时直接命中缓存。
+     */
+    private static void evaluateFormulas(Sheet sheet, ReadOptions options, int firstRow, int lastRow,
+                                         MergedRegionIndex mergedIndex) {
+        FormulaEvaluator evaluator = sheet.getWorkbook().getCreationHelper().createFormulaEvaluator();
+        // 引用的外部工作簿不存在时使用文件中保存的结果
+        evaluator.setIgnoreMissingWorkbooks(true);
+
+        for (int i = firstRow; i <= lastRow; i++) {
+            evaluateRow(evaluator, sheet.getRow(i));
+        }
+        if (options.hasHeaders() && (options.getHeaderRow() < firstRow || options.getHeaderRow() > lastRow)) {
+            evaluateRow(evaluator, sheet.getRow(options.getHeaderRow()));
+        }
+        for (int k = 0; k < mergedIndex.size(); k++) {
+            int row = mergedIndex.getFirstRow(k);
+            if (row < firstRow || row > lastRow) {
+                Row rowData = sheet.getRow(row);
+                if (rowData != null) {
+                    evaluateCell(evaluator, rowData.getCell(mergedIndex.getFirstColumn(k)));
+                }
+            }
+        }
+    }
+
+    private static void evaluateRow(FormulaEvaluator evaluator, Row row) {
+        if (row != null) {
+            for (Cell cell : row) {
+                evaluateCell(evaluator, cell);
+            }
+        }
+    }
+
+    private static void evaluateCell(FormulaEvaluator evaluator, Cell cell) {
+        if (cell == null || cell.getCellType() != CellType.FORMULA) {
+            return;
+        }
+        try {
+            evaluator.evaluateFormulaCell(cell);
+        } catch (RuntimeException e) {
+            // 不支持的函数等无法计算的公式，保留文件中保存的结果
+        }
+    }
+
+    /**
+     * 读取 Excel 文件为列式存储的带类型数据，自动处理合并单元格
+     *
+     * @param filePath Excel 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @return 列式数据
+     * @throws IOException 文件读取异常
+     */
+    public static ColumnarSheet readExcelColumnar(String filePath, int sheetIndex) throws IOException {
+        Workbook workbook = WorkbookOpener.open(new File(filePath), null);
+        try {
+            Sheet sheet = workbook.getSheetAt(sheetIndex);
+            return readSheetColumnar(sheet);
+        } finally {
+            WorkbookOpener.close(workbook);
+        }
+    }
+
+    /**
+     * 通过二进制快照读取 Excel 文件：快照存在且与源文件一致时直接内存映射打开，否则解析后写入快照
+     * <p>
+     * 首次解析之后的读取不再解压和解析 XML，行在访问时才解码
+     *
+     * @param filePath Excel 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @param snapshotFile 快照文件路径
+     * @return 内存映射的工作表快照
+     * @throws IOException 文件读取异常
+     */
+    public static SheetSnapshot readExcelWithSnapshot(String filePath, int sheetIndex, Path snapshotFile) throws IOException {
+        Path source = Paths.get(filePath);
+        if (Files.isRegularFile(snapshotFile)) {
+            try {
+                // 先只读头部判断，过期的快照不建立映射，重新生成时才能替换文件
+                if (SheetSnapshot.isUpToDate(snapshotFile, source, sheetIndex)) {
+                    return SheetSnapshot.open(snapshotFile);
+                }
+            } catch (IOException e) {
+                // 快照损坏时重新生成
+            }
+        }
+
+        ColumnarSheet sheet = readExcelColumnar(filePath, sheetIndex);
+        SheetSnapshot.write(sheet, sheetIndex, source, snapshotFile);
+        return SheetSnapshot.open(snapshotFile);
+    }
+
+    /**
+     * 读取工作表数据为列式存储的带类型数据，处理合并单元格
+     * <p>
+     * 与 {@link #readSheetWithMerge(Sheet)} 读取范围一致，{@link ColumnarSheet#asRows()} 可得到相同的字符串结果
+     *
+     * @param sheet 工作表对象
+     * @return 列式数据
+     */
+    public static ColumnarSheet readSheetColumnar(Sheet sheet) {
+        MergedRegionIndex mergedIndex = MergedRegionIndex.of(sheet);
+        CellFormatCache formats = CellFormatCache.of(sheet.getWorkbook());
+
+        // 空工作表的 getFirstRowNum 为 -1，与 readSheetWithMerge 一致从第0行开始
+        int firstRow = Math.max(sheet.getFirstRowNum(), 0);
+        int lastRow = sheet.getLastRowNum();
+        ColumnarSheet.Builder builder = new ColumnarSheet.Builder(firstRow, formats.isDate1904());
+
+        for (int i = firstRow; i <= lastRow; i++) {
+            Row row = sheet.getRow(i);
+            builder.startRow();
 
             if (row != null) {
-                // 确定行的最大列数
                 int firstCellNum = row.getFirstCellNum();
                 int lastCellNum = row.getLastCellNum();
 
                 if (firstCellNum >= 0 && lastCellNum >= 0) {
+                    builder.setRowSpan(firstCellNum, lastCellNum);
                     for (int j = firstCellNum; j < lastCellNum; j++) {
-                        String key = i + "," + j;
-                        if (mergedData.containsKey(key)) {
-                            // 使用合并单元格的值
-                            rowData.add(mergedData.get(key));
+                        int regionId = mergedIndex.find(i, j);
+                        if (regionId >= 0 && !mergedIndex.isTopLeft(regionId, i, j)) {
+                            // 合并单元格复制左上角单元格的值
+                            builder.copyCell(mergedIndex.getFirstRow(regionId) - firstRow, mergedIndex.getFirstColumn(regionId), j);
                         } else {
-                            // 普通单元格的值
-                            Cell cell = row.getCell(j);
-                            rowData.add(getCellValueAsString(cell));
+                            writeTypedCell(builder, formats, j, row.getCell(j));
                         }
                     }
                 }
             }
-            result.add(rowData);
         }
 
-        return result;
+        return builder.build();
+    }
+
+    /**
+     * 按单元格类型写入列式数据，转换规则与 getCellValueAsString 一致
+     */
+    private static void writeTypedCell(ColumnarSheet.Builder builder, CellFormatCache formats, int col, Cell cell) {
+        if (cell == null) {
+            builder.setBlank(col);
+            return;
+        }
+
+        switch (cell.getCellType()) {
+            case STRING:
+                builder.setString(col, cell.getStringCellValue());
+                break;
+            case NUMERIC:
+                double value = cell.getNumericCellValue();
+                if (formats.isDateFormatted(cell, value)) {
+                    builder.setDate(col, value);
+                } else {
+                    builder.setNumber(col, value);
+                }
+                break;
+            case BOOLEAN:
+                builder.setBoolean(col, cell.getBooleanCellValue());
+                break;
+            case FORMULA:
+                if (!hasCachedFormulaResult(cell)) {
+                    builder.setBlank(col);
+                    break;
+                }
+                switch (cell.getCachedFormulaResultType()) {
+                    case NUMERIC:
+                        builder.setNumber(col, cell.getNumericCellValue());
+                        break;
+                    case STRING:
+                        builder.setString(col, cell.getStringCellValue());
+                        break;
+                    case BOOLEAN:
+                        builder.setBoolean(col, cell.getBooleanCellValue());
+                        break;
+                    default:
+                        builder.setBlank(col);
+                        break;
+                }
+                break;
+            default:
+                builder.setBlank(col);
+                break;
+        }
+    }
+
+    /**
+     * 按单元格类型回调读取 Excel 文件，自动处理合并单元格，不生成字符串结果
+     *
+     * @param filePath Excel 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @param visitor 单元格回调
+     * @throws IOException 文件读取异常
+     */
+    public static void visitExcel(String filePath, int sheetIndex, CellVisitor visitor) throws IOException {
+        ReadMetrics.Recorder recorder = ReadMetrics.Recorder.start(metricsSink, filePath, false);
+        Workbook workbook = WorkbookOpener.open(new File(filePath), recorder);
+        try {
+            if (recorder != null) {
+                recorder.phase(ReadMetrics.Phase.PARSE);
+            }
+            Sheet sheet = workbook.getSheetAt(sheetIndex);
+            visitSheet(sheet, recorder == null ? visitor : countingVisitor(visitor, recorder));
+            if (recorder != null) {
+                recorder.phase(ReadMetrics.Phase.CONVERT);
+                recorder.mergedRegions(sheet.getNumMergedRegions());
+                recorder.finish(sheetIndex, sheet.getSheetName());
+            }
+        } finally {
+            WorkbookOpener.close(workbook);
+        }
+    }
+
+    /**
+     * 按单元格类型回调工作表数据，遍历范围和合并单元格处理与 {@link #readSheetWithMerge(Sheet)} 一致
+     *
+     * @param sheet 工作表对象
+     * @param visitor 单元格回调
+     */
+    public static void visitSheet(Sheet sheet, CellVisitor visitor) {
+        MergedRegionIndex mergedIndex = MergedRegionIndex.of(sheet);
+        CellFormatCache formats = CellFormatCache.of(sheet.getWorkbook());
+
+        // 按区域编号记录左上角单元格，区域内的单元格按它的类型和值回调
+        Cell[] mergedCells = new Cell[mergedIndex.size()];
+        for (int k = 0; k < mergedCells.length; k++) {
+            Row firstRowData = sheet.getRow(mergedIndex.getFirstRow(k));
+            mergedCells[k] = firstRowData == null ? null : firstRowData.getCell(mergedIndex.getFirstColumn(k));
+        }
+
+        int lastRow = sheet.getLastRowNum();
+        for (int i = Math.max(sheet.getFirstRowNum(), 0); i <= lastRow; i++) {
+            Row row = sheet.getRow(i);
+            if (row != null) {
+                int firstCellNum = row.getFirstCellNum();
+                int lastCellNum = row.getLastCellNum();
+                if (firstCellNum >= 0 && lastCellNum >= 0) {
+                    for (int j = firstCellNum; j < lastCellNum; j++) {
+                        int regionId = mergedIndex.find(i, j);
+                        visitCell(visitor, i, j, regionId >= 0 ? mergedCells[regionId] : row.getCell(j), formats);
+                    }
+                }
+            }
+            visitor.onRowEnd(i);
+        }
+    }
+
+    /**
+     * 按单元格类型回调，转换规则与 getCellValueAsString 一致
+     */
+    private static void visitCell(CellVisitor visitor, int row, int col, Cell cell, CellFormatCache formats) {
+        if (cell == null) {
+            visitor.onBlank(row, col);
+            return;
+        }
+
+        switch (cell.getCellType()) {
+            case STRING:
+                visitor.onString(row, col, cell.getStringCellValue());
+                break;
+            case NUMERIC:
+                double value = cell.getNumericCellValue();
+                if (formats.isDateFormatted(cell, value)) {
+                    visitor.onDate(row, col, formats.toEpochMillis(value));
+                } else {
+                    visitor.onNumeric(row, col, value);
+                }
+                break;
+            case BOOLEAN:
+                visitor.onBoolean(row, col, cell.getBooleanCellValue());
+                break;
+            case FORMULA:
+                if (!hasCachedFormulaResult(cell)) {
+                    visitor.onBlank(row, col);
+                    break;
+                }
+                switch (cell.getCachedFormulaResultType()) {
+                    case NUMERIC:
+                        visitor.onNumeric(row, col, cell.getNumericCellValue());
+                        break;
+                    case STRING:
+                        visitor.onString(row, col, cell.getStringCellValue());
+                        break;
+                    case BOOLEAN:
+                        visitor.onBoolean(row, col, cell.getBooleanCellValue());
+                        break;
+                    default:
+                        visitor.onBlank(row, col);
+                        break;
+                }
+                break;
+            default:
+                visitor.onBlank(row, col);
+                break;
+        }
+    }
+
+    /**
+     * 统计行数和单元格数，每行结束时计入
+     */
+    private static CellVisitor countingVisitor(CellVisitor visitor, ReadMetrics.Recorder recorder) {
+        return new CellVisitor() {
+            private int cells;
+
+            @Override
+            public void onNumeric(int row, int col, double value) {
+                cells++;
+                visitor.onNumeric(row, col, value);
+            }
+
+            @Override
+            public void onString(int row, int col, CharSequence value) {
+                cells++;
+                visitor.onString(row, col, value);
+            }
+
+            @Override
+            public void onBoolean(int row, int col, boolean value) {
+                cells++;
+                visitor.onBoolean(row, col, value);
+            }
+
+            @Override
+            public void onDate(int row, int col, long epochMillis) {
+                cells++;
+                visitor.onDate(row, col, epochMillis);
+            }
+
+            @Override
+            public void onBlank(int row, int col) {
+                cells++;
+                visitor.onBlank(row, col);
+            }
+
+            @Override
+            public void onRowEnd(int row) {
+                recorder.rows(1, cells);
+                cells = 0;
+                visitor.onRowEnd(row);
+            }
+        };
     }
 
     /**
      * 获取单元格的字符串值
      *
      * @param cell 单元格对象
+     * @param deduplicator 字符串去重器
+     * @param formats 工作簿的数值格式缓存
      * @return 单元格的字符串值
      */
-    private static String getCellValueAsString(Cell cell) {
+    private static String getCellValueAsString(Cell cell, StringDeduplicator deduplicator, CellFormatCache formats) {
         if (cell == null) {
             return "";
         }
 
         switch (cell.getCellType()) {
             case STRING:
-                return cell.getStringCellValue();
+                return getStringValue(cell, deduplicator);
             case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                } else {
-                    // 避免科学计数法显示
-                    return String.valueOf(cell.getNumericCellValue());
-                }
+                // 按样式下标查缓存判断日期格式，不再逐单元格解析格式字符串
+                // 避免科学计数法显示
+                return formats.formatNumeric(cell);
             case BOOLEAN:
                 return String.valueOf(cell.getBooleanCellValue());
             case FORMULA:
-                try {
-                    return String.valueOf(cell.getNumericCellValue());
-                } catch (Exception e) {
-                    return cell.getStringCellValue();
-                }
+                return getCachedFormulaValue(cell, deduplicator);
             case BLANK:
                 return "";
             default:
@@ -154,41 +996,116 @@ public class ExcelPOIReaderUtil {
         }
     }
 
+    /**
+     * 按公式缓存结果的类型取值，不抛异常；错误值和没有缓存结果时为空字符串，与流式读取一致
+     */
+    private static String getCachedFormulaValue(Cell cell, StringDeduplicator deduplicator) {
+        if (!hasCachedFormulaResult(cell)) {
+            return "";
+        }
+        switch (cell.getCachedFormulaResultType()) {
+            case NUMERIC:
+                return String.valueOf(cell.getNumericCellValue());
+            case STRING:
+                return deduplicator.intern(cell.getStringCellValue());
+            case BOOLEAN:
+                return String.valueOf(cell.getBooleanCellValue());
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * xlsx 的公式可以不带计算结果（由程序生成、未经 Excel 保存），此时 POI 按数值 0 返回；xls 总是带计算结果
+     */
+    private static boolean hasCachedFormulaResult(Cell cell) {
+        return !(cell instanceof XSSFCell) || ((XSSFCell) cell).getCTCell().isSetV();
+    }
+
+    /**
+     * 获取字符串单元格的值：xlsx 共享字符串按共享字符串表下标去重，命中时不再创建字符串；其他字符串进入有界池
+     */
+    private static String getStringValue(Cell cell, StringDeduplicator deduplicator) {
+        if (cell instanceof XSSFCell) {
+            CTCell ctCell = ((XSSFCell) cell).getCTCell();
+            if (ctCell.getT() == STCellType.S && ctCell.isSetV()) {
+                int index = Integer.parseInt(ctCell.getV());
+                Object table = ((XSSFCell) cell).getSheet().getWorkbook().getSharedStringSource();
+                String value = deduplicator.getShared(table, index);
+                return value != null ? value : deduplicator.putShared(table, index, cell.getStringCellValue());
+            }
+        }
+        return deduplicator.intern(cell.getStringCellValue());
+    }
+
     /**
      * 读取 Excel 文件的所有工作表
      *
      * @param filePath Excel 文件路径
-     * @return 所有工作表的数据，key为工作表名称，value为数据
+     * @return 所有工作表的数据，按工作表顺序排列，key为工作表名称，value为数据
      * @throws IOException 文件读取异常
      */
     public static Map<String, List<List<String>>> readAllSheets(String filePath) throws IOException {
-        FileInputStream fis = new FileInputStream(filePath);
-        Workbook workbook = null;
-
+        ReadMetrics.Recorder recorder = ReadMetrics.Recorder.start(metricsSink, filePath, false);
+        Workbook workbook = WorkbookOpener.open(new File(filePath), recorder);
         try {
-            if (filePath.endsWith(".xlsx")) {
-                workbook = new XSSFWorkbook(fis);
-            } else if (filePath.endsWith(".xls")) {
-                workbook = new HSSFWorkbook(fis);
-            } else {
-                throw new IllegalArgumentException("不支持的文件格式");
+            if (recorder != null) {
+                recorder.phase(ReadMetrics.Phase.PARSE);
             }
 
-            Map<String, List<List<String>>> allSheetsData = new HashMap<>();
+            Map<String, List<List<String>>> allSheetsData = new LinkedHashMap<>();
+            StringDeduplicator deduplicator = new StringDeduplicator();
 
             int numberOfSheets = workbook.getNumberOfSheets();
             for (int i = 0; i < numberOfSheets; i++) {
                 Sheet sheet = workbook.getSheetAt(i);
                 String sheetName = sheet.getSheetName();
-                allSheetsData.put(sheetName, readSheetWithMerge(sheet));
+                allSheetsData.put(sheetName, readSheetWithMerge(sheet, ReadOptions.all(), deduplicator, recorder, false));
+                if (recorder != null) {
+                    recorder.finish(i, sheetName);
+                }
             }
 
             return allSheetsData;
         } finally {
-            if (workbook != null) {
-                workbook.close();
-            }
-            fis.close();
+            WorkbookOpener.close(workbook);
+        }
+    }
+
+    /**
+     * 并行读取 Excel 文件的所有工作表，使用与 CPU 核数相同的线程数
+     *
+     * @param filePath Excel 文件路径
+     * @return 所有工作表的数据，按工作表顺序排列，key为工作表名称，value为数据
+     * @throws IOException 文件读取异常
+     */
+    public static Map<String, List<List<String>>> readAllSheetsParallel(String filePath) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            return readAllSheetsParallel(filePath, executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 并行读取 Excel 文件的所有工作表
+     * <p>
+     * xlsx 文件的每个工作表在指定线程池上从各自的部件流式解析；
+     * xls 文件的工作簿模型不支持并发访问，退化为顺序读取。
+     *
+     * @param filePath Excel 文件路径
+     * @param executor 执行解析任务的线程池，由调用方管理生命周期
+     * @return 所有工作表的数据，按工作表顺序排列，key为工作表名称，value为数据
+     * @throws IOException 文件读取异常
+     */
+    public static Map<String, List<List<String>>> readAllSheetsParallel(String filePath, Executor executor) throws IOException {
+        if (filePath.endsWith(".xlsx")) {
+            return XlsxStreamingReader.readAllSheets(filePath, executor);
+        } else if (filePath.endsWith(".xls")) {
+            return readAllSheets(filePath);
+        } else {
+            throw new IllegalArgumentException("不支持的文件格式");
         }
     }
 
@@ -1,15 +1,13 @@
 package many_utils.excelModule;
 
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
-import org.apache.poi.ss.util.CellRangeAddress;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.PrintStream;
 
 public class ExcelReader {
 
@@ -25,16 +23,28 @@ public class ExcelReader {
     }
 
     public static void readExcel(String filePath) {
-        try (FileInputStream fis = new FileInputStream(new File(filePath))) {
-            Workbook workbook = WorkbookFactory.create(fis);
+        readExcel(filePath, System.out);
+    }
+
+    /**
+     * Prints the first sheet to the given stream, one row per line, cells separated by tabs.
+     *
+     * @param filePath The path of the Excel file.
+     * @param out      The stream to print to.
+     */
+    public static void readExcel(String filePath, PrintStream out) {
+        try (Workbook workbook = WorkbookFactory.create(new File(filePath), null, true)) {
             Sheet sheet = workbook.getSheetAt(0);
+            MergedRegionIndex mergedIndex = MergedRegionIndex.of(sheet);
+            String[] mergedValues = new String[mergedIndex.size()];
+            CellFormatCache formats = CellFormatCache.of(workbook);
 
             for (Row row : sheet) {
                 for (Cell cell : row) {
-                    String cellValue = getCellValue(sheet, cell);
-                    System.out.print(cellValue + "\t");
+                    String cellValue = getCellValue(sheet, mergedIndex, mergedValues, formats, cell);
+                    out.print(cellValue + "\t");
                 }
-                System.out.println();
+                out.println();
             }
         } catch (IOException e) {
             e.printStackTrace();
@@ -44,61 +54,54 @@ public class ExcelReader {
     /**
      * Gets the value of a cell, handling merged regions.
      *
-     * @param sheet The worksheet.
-     * @param cell  The cell to get the value for.
+     * @param sheet        The worksheet.
+     * @param mergedIndex  The merged region index of the worksheet.
+     * @param mergedValues Cache of merged region values, indexed by region id.
+     * @param formats      Date-format cache of the workbook, keyed by style index.
+     * @param cell         The cell to get the value for.
      * @return The cell's value as a string.
      */
-    private static String getCellValue(Sheet sheet, Cell cell) {
-        if (isMergedCell(sheet, cell)) {
-            return getMergedRegionValue(sheet, cell);
+    private static String getCellValue(Sheet sheet, MergedRegionIndex mergedIndex, String[] mergedValues,
+                                       CellFormatCache formats, Cell cell) {
+        int regionId = mergedIndex.find(cell.getRowIndex(), cell.getColumnIndex());
+        if (regionId >= 0) {
+            return getMergedRegionValue(sheet, mergedIndex, mergedValues, formats, regionId);
         } else {
-            return getFormattedCellValue(cell);
-        }
-    }
-
-    /**
-     * Checks if a cell is part of a merged region.
-     *
-     * @param sheet The worksheet.
-     * @param cell  The cell to check.
-     * @return True if the cell is in a merged region, false otherwise.
-     */
-    private static boolean isMergedCell(Sheet sheet, Cell cell) {
-        for (int i = 0; i < sheet.getNumMergedRegions(); i++) {
-            CellRangeAddress mergedRegion = sheet.getMergedRegion(i);
-            if (mergedRegion.isInRange(cell)) {
-                return true;
-            }
+            return getFormattedCellValue(cell, formats);
         }
-        return false;
     }
 
     /**
      * Finds and returns the value of the top-left cell of a merged region.
+     * The value is computed once per region and cached.
      *
-     * @param sheet The worksheet.
-     * @param cell  A cell within the merged region.
+     * @param sheet        The worksheet.
+     * @param mergedIndex  The merged region index of the worksheet.
+     * @param mergedValues Cache of merged region values, indexed by region id.
+     * @param formats      Date-format cache of the workbook, keyed by style index.
+     * @param regionId     The id of the merged region.
      * @return The value of the top-left cell.
      */
-    private static String getMergedRegionValue(Sheet sheet, Cell cell) {
-        for (int i = 0; i < sheet.getNumMergedRegions(); i++) {
-            CellRangeAddress mergedRegion = sheet.getMergedRegion(i);
-            if (mergedRegion.isInRange(cell)) {
-                Row firstRow = sheet.getRow(mergedRegion.getFirstRow());
-                Cell firstCell = firstRow.getCell(mergedRegion.getFirstColumn());
-                return getFormattedCellValue(firstCell);
-            }
+    private static String getMergedRegionValue(Sheet sheet, MergedRegionIndex mergedIndex, String[] mergedValues,
+                                               CellFormatCache formats, int regionId) {
+        String value = mergedValues[regionId];
+        if (value == null) {
+            Row firstRow = sheet.getRow(mergedIndex.getFirstRow(regionId));
+            Cell firstCell = firstRow == null ? null : firstRow.getCell(mergedIndex.getFirstColumn(regionId));
+            value = getFormattedCellValue(firstCell, formats);
+            mergedValues[regionId] = value;
         }
-        return "";
+        return value;
     }
 
     /**
      * Gets the formatted value of a non-merged cell.
      *
-     * @param cell The cell to get the value from.
+     * @param cell    The cell to get the value from.
+     * @param formats Date-format cache of the workbook, keyed by style index.
      * @return The formatted cell value.
      */
-    private static String getFormattedCellValue(Cell cell) {
+    private static String getFormattedCellValue(Cell cell, CellFormatCache formats) {
         if (cell == null) {
             return "";
         }
@@ -106,18 +109,20 @@ public class ExcelReader {
             case STRING:
                 return cell.getStringCellValue();
             case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                } else {
-                    return String.valueOf(cell.getNumericCellValue());
-                }
+                return formats.formatNumeric(cell);
             case BOOLEAN:
                 return String.valueOf(cell.getBooleanCellValue());
             case FORMULA:
-                try {
-                    return cell.getStringCellValue();
-                } catch (IllegalStateException e) {
-                    return String.valueOf(cell.getNumericCellValue());
+                // Dispatch on the cached result type instead of probing with try/catch.
+                switch (cell.getCachedFormulaResultType()) {
+                    case STRING:
+                        return cell.getStringCellValue();
+                    case NUMERIC:
+                        return String.valueOf(cell.getNumericCellValue());
+                    case BOOLEAN:
+                        return String.valueOf(cell.getBooleanCellValue());
+                    default:
+                        return "";
                 }
             case BLANK:
                 return "";
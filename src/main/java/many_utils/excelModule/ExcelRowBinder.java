@@ -0,0 +1,780 @@
+package many_utils.excelModule;
+
+import java.io.IOException;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 按表头把行绑定为对象：表头名称对应字段（{@link ExcelColumn} 或字段名），单元格按类型直接转换为字段类型
+ * <p>
+ * 每个类的构造方法和 setter 只解析一次，用 LambdaMetafactory 生成调用，double、int、long、boolean 字段
+ * 不经过装箱，也不经过字符串；没有 setter 的字段、不可访问的类退回 MethodHandle 调用。
+ * 单元格来自 {@link CellVisitor}，合并单元格已取左上角单元格的值，完全空白的行跳过。
+ * <p>
+ * 支持的字段类型：String、double/Double、int/Integer、long/Long、boolean/Boolean、float/Float、
+ * BigDecimal、Date、LocalDate、LocalDateTime 和枚举；static、transient、final 字段以及其他类型的字段不绑定。
+ * 无法转换的单元格抛出 IllegalArgumentException，说明所在行列。
+ *
+ * <pre>
+ * ExcelRowBinder&lt;Order&gt; binder = ExcelRowBinder.of(Order.class);
+ * List&lt;Order&gt; orders = binder.read("orders.xlsx", 0);
+ * // 大文件：从快照按批处理
+ * SheetSnapshot snapshot = ExcelPOIReaderUtil.readExcelWithSnapshot(path, 0, snapshotFile);
+ * binder.bind(snapshot::accept, 1000, batch -&gt; repository.saveAll(batch));
+ * </pre>
+ *
+ * @param <T> 行对象类型，需要无参构造方法
+ */
+public final class ExcelRowBinder<T> {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final ClassValue<Binding> BINDINGS = new ClassValue<Binding>() {
+        @Override
+        protected Binding computeValue(Class<?> type) {
+            return new Binding(type);
+        }
+    };
+
+    private static final int COLLECT_BATCH_SIZE = 1024;
+
+    private final Class<T> type;
+    private final Binding binding;
+    private int headerRow = 0;
+
+    private ExcelRowBinder(Class<T> type) {
+        this.type = type;
+        this.binding = BINDINGS.get(type);
+    }
+
+    /**
+     * @param type 行对象类型，绑定信息按类缓存
+     */
+    public static <T> ExcelRowBinder<T> of(Class<T> type) {
+        return new ExcelRowBinder<>(type);
+    }
+
+    /**
+     * 表头所在的行号（从0开始，默认0），之前的行忽略，之后的行为数据
+     */
+    public ExcelRowBinder<T> headerRow(int headerRow) {
+        if (headerRow < 0) {
+            throw new IllegalArgumentException("表头行号无效: " + headerRow);
+        }
+        this.headerRow = headerRow;
+        return this;
+    }
+
+    /**
+     * 读取工作表并绑定全部数据行
+     *
+     * @param filePath Excel 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @return 按行顺序排列的对象
+     * @throws IOException 文件读取异常
+     */
+    public List<T> read(String filePath, int sheetIndex) throws IOException {
+        List<T> result = new ArrayList<>();
+        read(filePath, sheetIndex, COLLECT_BATCH_SIZE, result::addAll);
+        return result;
+    }
+
+    /**
+     * 读取工作表并按批回调绑定的对象
+     *
+     * @param filePath Excel 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @param batchSize 每批的对象数，最后一批可能不足
+     * @param batchHandler 批回调，每批是新的列表，可以直接保留
+     * @throws IOException 文件读取异常
+     */
+    public void read(String filePath, int sheetIndex, int batchSize, Consumer<List<T>> batchHandler) throws IOException {
+        RowVisitor visitor = new RowVisitor(batchSize, batchHandler);
+        ExcelPOIReaderUtil.visitExcel(filePath, sheetIndex, visitor);
+        visitor.finish();
+    }
+
+    /**
+     * 从任意单元格来源绑定全部数据行，例如 {@code snapshot::accept}、{@code columnar::accept}
+     * 或 {@code v -> ExcelPOIReaderUtil.visitSheet(sheet, v)}
+     *
+     * @param source 接收回调并遍历单元格
+     * @return 按行顺序排列的对象
+     */
+    public List<T> bind(Consumer<CellVisitor> source) {
+        List<T> result = new ArrayList<>();
+        bind(source, COLLECT_BATCH_SIZE, result::addAll);
+        return result;
+    }
+
+    /**
+     * 从任意单元格来源按批回调绑定的对象
+     *
+     * @param source 接收回调并遍历单元格
+     * @param batchSize 每批的对象数，最后一批可能不足
+     * @param batchHandler 批回调，每批是新的列表，可以直接保留
+     */
+    public void bind(Consumer<CellVisitor> source, int batchSize, Consumer<List<T>> batchHandler) {
+        RowVisitor visitor = new RowVisitor(batchSize, batchHandler);
+        source.accept(visitor);
+        visitor.finish();
+    }
+
+    /**
+     * 绑定已按列对齐的字符串行：每行第 j 个元素为第 j 列的值（第0个为 A 列），第 headerRow 个元素为表头，值按字符串转换
+     * <p>
+     * readExcelWithMerge 的结果每行从该行第一个单元格开始，A 列为空的行会整体左移，不能直接传入；
+     * 读取文件时用 {@link #read(String, int)} 或 {@link #bind(Consumer)}，列号来自单元格本身
+     *
+     * @param rows 字符串行，列按元素下标计，从 A 列开始
+     * @return 按行顺序排列的对象
+     */
+    public List<T> bindRows(List<List<String>> rows) {
+        return bind(visitor -> {
+            for (int i = 0; i < rows.size(); i++) {
+                List<String> row = rows.get(i);
+                for (int j = 0; j < row.size(); j++) {
+                    String value = row.get(j);
+                    if (value == null || value.isEmpty()) {
+                        visitor.onBlank(i, j);
+                    } else {
+                        visitor.onString(i, j, value);
+                    }
+                }
+                visitor.onRowEnd(i);
+            }
+        });
+    }
+
+    /**
+     * 一次绑定的状态：表头行收集列名，之后每行创建一个对象，按列号找到字段写入
+     */
+    private final class RowVisitor implements CellVisitor {
+        private final int batchSize;
+        private final Consumer<List<T>> batchHandler;
+        private final List<String> header = new ArrayList<>();
+        private Property[] columns;
+        private T current;
+        private List<T> batch;
+
+        RowVisitor(int batchSize, Consumer<List<T>> batchHandler) {
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("批大小必须大于0: " + batchSize);
+            }
+            this.batchSize = batchSize;
+            this.batchHandler = batchHandler;
+            this.batch = new ArrayList<>(Math.min(batchSize, COLLECT_BATCH_SIZE));
+        }
+
+        @Override
+        public void onNumeric(int row, int col, double value) {
+            if (row == headerRow) {
+                headerCell(col, String.valueOf(value));
+                return;
+            }
+            Property property = property(row, col);
+            if (property != null) {
+                property.setNumeric(target(), value, row, col);
+            }
+        }
+
+        @Override
+        public void onString(int row, int col, CharSequence value) {
+            if (row == headerRow) {
+                headerCell(col, value.toString());
+                return;
+            }
+            Property property = property(row, col);
+            if (property != null && value.length() > 0) {
+                property.setString(target(), value.toString(), row, col);
+            }
+        }
+
+        @Override
+        public void onBoolean(int row, int col, boolean value) {
+            if (row == headerRow) {
+                headerCell(col, String.valueOf(value));
+                return;
+            }
+            Property property = property(row, col);
+            if (property != null) {
+                property.setBoolean(target(), value, row, col);
+            }
+        }
+
+        @Override
+        public void onDate(int row, int col, long epochMillis) {
+            if (row == headerRow) {
+                headerCell(col, new Date(epochMillis).toString());
+                return;
+            }
+            Property property = property(row, col);
+            if (property != null) {
+                property.setDate(target(), epochMillis, row, col);
+            }
+        }
+
+        @Override
+        public void onRowEnd(int row) {
+            if (row == headerRow) {
+                resolveHeader();
+            } else if (current != null) {
+                batch.add(current);
+                current = null;
+                if (batch.size() >= batchSize) {
+                    flush();
+                }
+            }
+        }
+
+        void finish() {
+            flush();
+        }
+
+        private void headerCell(int col, String value) {
+            while (header.size() < col) {
+                header.add("");
+            }
+            header.add(value);
+        }
+
+        private Property property(int row, int col) {
+            if (row < headerRow) {
+                return null;
+            }
+            if (columns == null) {
+                // 表头行不存在
+                resolveHeader();
+            }
+            return col < columns.length ? columns[col] : null;
+        }
+
+        private void resolveHeader() {
+            columns = new Property[header.size()];
+            boolean matched = false;
+            for (int j = 0; j < columns.length; j++) {
+                Property property = binding.properties.get(header.get(j).trim());
+                // 同名表头取第一列
+                if (property != null && !contains(columns, property)) {
+                    columns[j] = property;
+                    matched = true;
+                }
+            }
+            if (!matched && !header.isEmpty()) {
+                throw new IllegalArgumentException("表头中没有与 " + type.getName() + " 的字段对应的列: " + header);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object target() {
+            if (current == null) {
+                current = (T) binding.factory.get();
+            }
+            return current;
+        }
+
+        private void flush() {
+            if (!batch.isEmpty()) {
+                List<T> full = batch;
+                batch = new ArrayList<>(Math.min(batchSize, COLLECT_BATCH_SIZE));
+                batchHandler.accept(full);
+            }
+        }
+    }
+
+    private static boolean contains(Property[] properties, Property property) {
+        for (Property p : properties) {
+            if (p == property) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 一个类的绑定信息：构造方法和按表头名称索引的字段
+     */
+    private static final class Binding {
+        private final Supplier<Object> factory;
+        private final Map<String, Property> properties = new LinkedHashMap<>();
+
+        Binding(Class<?> type) {
+            this.factory = factory(type);
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (field.isSynthetic() || Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)
+                            || Modifier.isFinal(modifiers)) {
+                        continue;
+                    }
+                    Kind kind = Kind.of(field.getType());
+                    ExcelColumn column = field.getAnnotation(ExcelColumn.class);
+                    if (kind == null) {
+                        if (column != null) {
+                            throw new IllegalArgumentException("不支持的字段类型: " + field);
+                        }
+                        continue;
+                    }
+                    String name = column != null ? column.value().trim() : field.getName();
+                    // 子类字段优先
+                    if (!properties.containsKey(name)) {
+                        properties.put(name, new Property(type, field, kind, name));
+                    }
+                }
+            }
+        }
+
+        private static Supplier<Object> factory(Class<?> type) {
+            Constructor<?> constructor;
+            try {
+                constructor = type.getDeclaredConstructor();
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException("缺少无参构造方法: " + type.getName(), e);
+            }
+            try {
+                if (isLinkable(type, constructor.getModifiers())) {
+                    MethodHandle handle = LOOKUP.unreflectConstructor(constructor);
+                    @SuppressWarnings("unchecked")
+                    Supplier<Object> supplier = metafactory(Supplier.class, "get", MethodType.methodType(Object.class),
+                            handle, MethodType.methodType(type), true);
+                    if (supplier != null) {
+                        return supplier;
+                    }
+                }
+                constructor.setAccessible(true);
+                MethodHandle handle = LOOKUP.unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+                return () -> {
+                    try {
+                        return (Object) handle.invokeExact();
+                    } catch (Throwable e) {
+                        throw propagate(e);
+                    }
+                };
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw new IllegalArgumentException("无法访问构造方法: " + type.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * 字段类型
+     */
+    private enum Kind {
+        STRING, DOUBLE, INT, LONG, BOOLEAN, FLOAT, BIG_DECIMAL, DATE, LOCAL_DATE, LOCAL_DATE_TIME, ENUM;
+
+        static Kind of(Class<?> type) {
+            if (type == String.class) {
+                return STRING;
+            } else if (type == double.class || type == Double.class) {
+                return DOUBLE;
+            } else if (type == int.class || type == Integer.class) {
+                return INT;
+            } else if (type == long.class || type == Long.class) {
+                return LONG;
+            } else if (type == boolean.class || type == Boolean.class) {
+                return BOOLEAN;
+            } else if (type == float.class || type == Float.class) {
+                return FLOAT;
+            } else if (type == BigDecimal.class) {
+                return BIG_DECIMAL;
+            } else if (type == Date.class) {
+                return DATE;
+            } else if (type == LocalDate.class) {
+                return LOCAL_DATE;
+            } else if (type == LocalDateTime.class) {
+                return LOCAL_DATE_TIME;
+            } else if (type.isEnum()) {
+                return ENUM;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 写入 boolean 字段，不装箱
+     */
+    @FunctionalInterface
+    private interface ObjBooleanConsumer {
+        void accept(Object target, boolean value);
+    }
+
+    /**
+     * 一个字段的写入：double、int、long、boolean 基本类型字段各有专用的写入器，其他类型写入对象
+     */
+    private static final class Property {
+        private final String name;
+        private final Class<?> type;
+        private final Kind kind;
+        private ObjDoubleConsumer<Object> doubleSetter;
+        private ObjIntConsumer<Object> intSetter;
+        private ObjLongConsumer<Object> longSetter;
+        private ObjBooleanConsumer booleanSetter;
+        private BiConsumer<Object, Object> objectSetter;
+
+        Property(Class<?> owner, Field field, Kind kind, String name) {
+            this.name = name;
+            this.type = field.getType();
+            this.kind = kind;
+            try {
+                Method setter = setterMethod(owner, field);
+                // 字段写入句柄不能生成 lambda，不可链接的 setter 同样走句柄调用
+                boolean linkable = setter != null && isLinkable(setter.getDeclaringClass(), setter.getModifiers());
+                MethodHandle handle;
+                if (setter != null) {
+                    if (!linkable) {
+                        setter.setAccessible(true);
+                    }
+                    handle = LOOKUP.unreflect(setter);
+                } else {
+                    field.setAccessible(true);
+                    handle = LOOKUP.unreflectSetter(field);
+                }
+                if (type == double.class) {
+                    doubleSetter = doubleSetter(handle, linkable);
+                } else if (type == int.class) {
+                    intSetter = intSetter(handle, linkable);
+                } else if (type == long.class) {
+                    longSetter = longSetter(handle, linkable);
+                } else if (type == boolean.class) {
+                    booleanSetter = booleanSetter(handle, linkable);
+                } else {
+                    objectSetter = objectSetter(handle, linkable);
+                }
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw new IllegalArgumentException("无法访问字段: " + field, e);
+            }
+        }
+
+        void setNumeric(Object target, double value, int row, int col) {
+            switch (kind) {
+                case DOUBLE:
+                    setDouble(target, value);
+                    break;
+                case INT:
+                    if (value != (int) value) {
+                        throw conversionError(row, col, value);
+                    }
+                    setInt(target, (int) value);
+                    break;
+                case LONG:
+                    if (value != (long) value) {
+                        throw conversionError(row, col, value);
+                    }
+                    setLong(target, (long) value);
+                    break;
+                case FLOAT:
+                    objectSetter.accept(target, (float) value);
+                    break;
+                case STRING:
+                    // 与字符串读取的结果一致
+                    objectSetter.accept(target, String.valueOf(value));
+                    break;
+                case BIG_DECIMAL:
+                    objectSetter.accept(target, BigDecimal.valueOf(value));
+                    break;
+                default:
+                    throw conversionError(row, col, value);
+            }
+        }
+
+        void setString(Object target, String value, int row, int col) {
+            try {
+                switch (kind) {
+                    case STRING:
+                        objectSetter.accept(target, value);
+                        break;
+                    case DOUBLE:
+                        setDouble(target, Double.parseDouble(value.trim()));
+                        break;
+                    case INT:
+                        setInt(target, Integer.parseInt(value.trim()));
+                        break;
+                    case LONG:
+                        setLong(target, Long.parseLong(value.trim()));
+                        break;
+                    case FLOAT:
+                        objectSetter.accept(target, Float.parseFloat(value.trim()));
+                        break;
+                    case BOOLEAN:
+                        String text = value.trim();
+                        if (!"true".equalsIgnoreCase(text) && !"false".equalsIgnoreCase(text)) {
+                            throw conversionError(row, col, value);
+                        }
+                        setBoolean(target, Boolean.parseBoolean(text));
+                        break;
+                    case BIG_DECIMAL:
+                        objectSetter.accept(target, new BigDecimal(value.trim()));
+                        break;
+                    case LOCAL_DATE:
+                        objectSetter.accept(target, LocalDate.parse(value.trim()));
+                        break;
+                    case LOCAL_DATE_TIME:
+                        objectSetter.accept(target, LocalDateTime.parse(value.trim()));
+                        break;
+                    case ENUM:
+                        objectSetter.accept(target, enumValue(value.trim()));
+                        break;
+                    default:
+                        throw conversionError(row, col, value);
+                }
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw conversionError(row, col, value);
+            }
+        }
+
+        void setBoolean(Object target, boolean value, int row, int col) {
+            if (kind == Kind.BOOLEAN) {
+                setBoolean(target, value);
+            } else if (kind == Kind.STRING) {
+                objectSetter.accept(target, String.valueOf(value));
+            } else {
+                throw conversionError(row, col, value);
+            }
+        }
+
+        void setDate(Object target, long epochMillis, int row, int col) {
+            switch (kind) {
+                case DATE:
+                    objectSetter.accept(target, new Date(epochMillis));
+                    break;
+                case LOCAL_DATE_TIME:
+                    objectSetter.accept(target, LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()));
+                    break;
+                case LOCAL_DATE:
+                    objectSetter.accept(target, LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()).toLocalDate());
+                    break;
+                case LONG:
+                    setLong(target, epochMillis);
+                    break;
+                case STRING:
+                    objectSetter.accept(target, new Date(epochMillis).toString());
+                    break;
+                default:
+                    throw conversionError(row, col, new Date(epochMillis));
+            }
+        }
+
+        private void setDouble(Object target, double value) {
+            if (doubleSetter != null) {
+                doubleSetter.accept(target, value);
+            } else {
+                objectSetter.accept(target, value);
+            }
+        }
+
+        private void setInt(Object target, int value) {
+            if (intSetter != null) {
+                intSetter.accept(target, value);
+            } else {
+                objectSetter.accept(target, value);
+            }
+        }
+
+        private void setLong(Object target, long value) {
+            if (longSetter != null) {
+                longSetter.accept(target, value);
+            } else {
+                objectSetter.accept(target, value);
+            }
+        }
+
+        private void setBoolean(Object target, boolean value) {
+            if (booleanSetter != null) {
+                booleanSetter.accept(target, value);
+            } else {
+                objectSetter.accept(target, value);
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Object enumValue(String value) {
+            try {
+                return Enum.valueOf((Class) type, value);
+            } catch (IllegalArgumentException e) {
+                throw new NumberFormatException(value);
+            }
+        }
+
+        private IllegalArgumentException conversionError(int row, int col, Object value) {
+            return new IllegalArgumentException("第 " + (row + 1) + " 行第 " + (col + 1) + " 列（" + name + "）无法转换为 "
+                    + type.getSimpleName() + ": " + value);
+        }
+    }
+
+    /**
+     * 优先使用 public 的 set 方法（参数类型与字段相同），没有时返回 null，直接写字段
+     */
+    private static Method setterMethod(Class<?> owner, Field field) {
+        String fieldName = field.getName();
+        String setterName = "set" + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+        try {
+            Method method = owner.getMethod(setterName, field.getType());
+            return Modifier.isStatic(method.getModifiers()) ? null : method;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static ObjDoubleConsumer<Object> doubleSetter(MethodHandle handle, boolean linkable) {
+        @SuppressWarnings("unchecked")
+        ObjDoubleConsumer<Object> setter = metafactory(ObjDoubleConsumer.class, "accept",
+                MethodType.methodType(void.class, Object.class, double.class), handle,
+                MethodType.methodType(void.class, handle.type().parameterType(0), double.class), linkable);
+        if (setter != null) {
+            return setter;
+        }
+        MethodHandle exact = handle.asType(MethodType.methodType(void.class, Object.class, double.class));
+        return (object, value) -> {
+            try {
+                exact.invokeExact(object, value);
+            } catch (Throwable e) {
+                throw propagate(e);
+            }
+        };
+    }
+
+    private static ObjIntConsumer<Object> intSetter(MethodHandle handle, boolean linkable) {
+        @SuppressWarnings("unchecked")
+        ObjIntConsumer<Object> setter = metafactory(ObjIntConsumer.class, "accept",
+                MethodType.methodType(void.class, Object.class, int.class), handle,
+                MethodType.methodType(void.class, handle.type().parameterType(0), int.class), linkable);
+        if (setter != null) {
+            return setter;
+        }
+        MethodHandle exact = handle.asType(MethodType.methodType(void.class, Object.class, int.class));
+        return (object, value) -> {
+            try {
+                exact.invokeExact(object, value);
+            } catch (Throwable e) {
+                throw propagate(e);
+            }
+        };
+    }
+
+    private static ObjLongConsumer<Object> longSetter(MethodHandle handle, boolean linkable) {
+        @SuppressWarnings("unchecked")
+        ObjLongConsumer<Object> setter = metafactory(ObjLongConsumer.class, "accept",
+                MethodType.methodType(void.class, Object.class, long.class), handle,
+                MethodType.methodType(void.class, handle.type().parameterType(0), long.class), linkable);
+        if (setter != null) {
+            return setter;
+        }
+        MethodHandle exact = handle.asType(MethodType.methodType(void.class, Object.class, long.class));
+        return (object, value) -> {
+            try {
+                exact.invokeExact(object, value);
+            } catch (Throwable e) {
+                throw propagate(e);
+            }
+        };
+    }
+
+    private static ObjBooleanConsumer booleanSetter(MethodHandle handle, boolean linkable) {
+        ObjBooleanConsumer setter = metafactory(ObjBooleanConsumer.class, "accept",
+                MethodType.methodType(void.class, Object.class, boolean.class), handle,
+                MethodType.methodType(void.class, handle.type().parameterType(0), boolean.class), linkable);
+        if (setter != null) {
+            return setter;
+        }
+        MethodHandle exact = handle.asType(MethodType.methodType(void.class, Object.class, boolean.class));
+        return (object, value) -> {
+            try {
+                exact.invokeExact(object, value);
+            } catch (Throwable e) {
+                throw propagate(e);
+            }
+        };
+    }
+
+    private static BiConsumer<Object, Object> objectSetter(MethodHandle handle, boolean linkable) {
+        Class<?> valueType = MethodType.methodType(handle.type().parameterType(1)).wrap().returnType();
+        @SuppressWarnings("unchecked")
+        BiConsumer<Object, Object> setter = metafactory(BiConsumer.class, "accept",
+                MethodType.methodType(void.class, Object.class, Object.class), handle,
+                MethodType.methodType(void.class, handle.type().parameterType(0), valueType), linkable);
+        if (setter != null) {
+            return setter;
+        }
+        MethodHandle exact = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return (object, value) -> {
+            try {
+                exact.invokeExact(object, value);
+            } catch (Throwable e) {
+                throw propagate(e);
+            }
+        };
+    }
+
+    /**
+     * 用 LambdaMetafactory 把方法句柄生成为函数式接口的实现，调用开销与直接调用相当。
+     * 只适用于可直接链接的 public 方法和构造方法，不可链接或生成失败时返回 null，由调用方退回句柄调用
+     */
+    private static <F> F metafactory(Class<F> iface, String methodName, MethodType samType,
+                                     MethodHandle handle, MethodType instantiatedType, boolean linkable) {
+        if (!linkable) {
+            return null;
+        }
+        try {
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, methodName, MethodType.methodType(iface),
+                    samType, handle, instantiatedType);
+            return iface.cast(site.getTarget().invoke());
+        } catch (VirtualMachineError e) {
+            throw e;
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * 生成的实现类由本类的类加载器链接，目标类必须对它可见且为 public
+     */
+    private static boolean isLinkable(Class<?> type, int memberModifiers) {
+        if (!Modifier.isPublic(memberModifiers)) {
+            return false;
+        }
+        for (Class<?> c = type; c != null; c = c.getEnclosingClass()) {
+            if (!Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        try {
+            return Class.forName(type.getName(), false, ExcelRowBinder.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static RuntimeException propagate(Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new IllegalStateException(e);
+    }
+}
@@ -0,0 +1,283 @@
+package many_utils.excelModule;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 基于 SXSSF 的 xlsx 流式写入，内存中只保留最近的若干行，超出窗口的行写入临时文件
+ * <p>
+ * 合并单元格与读取时的语义对应：合并区域只写入左上角单元格的值，区域内其余单元格写为空白单元格，
+ * 读取时这些单元格取左上角的值。每行从第0列开始写，空字符串写为空白单元格，
+ * 合并区域按写入位置定位：第 n 次写入的行为第 n 行（从0开始），行内第 j 个值为第 j 列。
+ * 在这个前提下 {@link ExcelPOIReaderUtil#readExcelWithMerge(String, int)} 读回的结果与写入的行相同。
+ * <p>
+ * 反过来不成立：读取结果中的行从工作表第一行、该行第一个单元格开始，源工作表有前导空行，或某行不从 A 列开始时，
+ * 读到的行直接写回会整体左移，源工作表的合并区域也对不上，需要调用方补齐前导空值并按偏移调整区域。
+ * <p>
+ * 字符串写为内联字符串，不使用共享字符串表，内存不随行数增长；样式是工作簿级的，
+ * 用 {@link #createStyle()} 创建一次后在各列、各工作表之间共享。
+ *
+ * <pre>
+ * try (ExcelStreamingWriter writer = new ExcelStreamingWriter()) {
+ *     CellStyle bold = writer.createStyle();
+ *     Font font = writer.createFont();
+ *     font.setBold(true);
+ *     bold.setFont(font);
+ *     writer.createSheet("报表")
+ *             .mergedRegions(regions)
+ *             .headerStyle(bold)
+ *             .writeRows(rows);
+ *     writer.write(target);
+ * }
+ * </pre>
+ */
+public final class ExcelStreamingWriter implements Closeable {
+
+    /**
+     * 默认在内存中保留的行数
+     */
+    public static final int DEFAULT_ROW_WINDOW = 100;
+
+    private final SXSSFWorkbook workbook;
+    private boolean written;
+
+    /**
+     * 默认行窗口，压缩临时文件
+     */
+    public ExcelStreamingWriter() {
+        this(DEFAULT_ROW_WINDOW, true);
+    }
+
+    /**
+     * @param rowWindow         每个工作表在内存中保留的行数，超出的行写入临时文件后不能再修改
+     * @param compressTempFiles 是否用 gzip 压缩临时文件，压缩后临时文件通常只有原来的十分之一，写入稍慢
+     */
+    public ExcelStreamingWriter(int rowWindow, boolean compressTempFiles) {
+        if (rowWindow <= 0) {
+            throw new IllegalArgumentException("行窗口必须大于0: " + rowWindow);
+        }
+        this.workbook = new SXSSFWorkbook(null, rowWindow, compressTempFiles, false);
+    }
+
+    /**
+     * 把行写入单个工作表的 xlsx 文件
+     * <p>
+     * 第 n 个行写入第 n 行，行内第 j 个值写入第 j 列，合并区域按这个写入坐标给出，不做偏移换算。
+     * 行数据若来自 readExcelWithMerge 且源工作表的行不从 A 列、第0行开始，写出的位置与源工作表不同，见类说明。
+     *
+     * @param file          目标文件
+     * @param sheetName     工作表名称
+     * @param rows          行数据
+     * @param mergedRegions 合并区域，没有时传空列表
+     * @return 写入的行数
+     * @throws IOException 文件写入异常
+     */
+    public static int write(Path file, String sheetName, Iterable<? extends List<String>> rows,
+                            List<CellRangeAddress> mergedRegions) throws IOException {
+        try (ExcelStreamingWriter writer = new ExcelStreamingWriter()) {
+            SheetWriter sheet = writer.createSheet(sheetName)
+                    .mergedRegions(mergedRegions)
+                    .writeRows(rows);
+            writer.write(file);
+            return sheet.getRowCount();
+        }
+    }
+
+    /**
+     * 创建工作簿级的样式，可在多个列和工作表之间共享；xlsx 最多 64000 个样式，不要按单元格创建
+     */
+    public CellStyle createStyle() {
+        return workbook.createCellStyle();
+    }
+
+    public Font createFont() {
+        return workbook.createFont();
+    }
+
+    /**
+     * 按顺序创建工作表
+     *
+     * @param name 工作表名称
+     * @return 工作表写入器
+     */
+    public SheetWriter createSheet(String name) {
+        ensureNotWritten();
+        return new SheetWriter(workbook.createSheet(name));
+    }
+
+    /**
+     * 写出 xlsx 文件，只能调用一次
+     *
+     * @param file 目标文件，已存在时覆盖
+     * @throws IOException 文件写入异常
+     */
+    public void write(Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            write(out);
+        }
+    }
+
+    /**
+     * 写出 xlsx 数据，只能调用一次，不关闭输出流
+     *
+     * @param out 输出流
+     * @throws IOException 写入异常
+     */
+    public void write(OutputStream out) throws IOException {
+        ensureNotWritten();
+        written = true;
+        workbook.write(out);
+    }
+
+    /**
+     * 删除临时文件并释放工作簿
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            workbook.dispose();
+        } finally {
+            workbook.close();
+        }
+    }
+
+    private void ensureNotWritten() {
+        if (written) {
+            throw new IllegalStateException("工作簿已写出");
+        }
+    }
+
+    /**
+     * 一个工作表的写入器：先设置合并区域和样式，再按顺序写入行
+     */
+    public final class SheetWriter {
+        private final SXSSFSheet sheet;
+        private MergedRegionIndex mergedIndex = MergedRegionIndex.of(Collections.<CellRangeAddress>emptyList());
+        private CellStyle[] columnStyles = new CellStyle[0];
+        private CellStyle headerStyle;
+        private int rowCount;
+
+        private SheetWriter(SXSSFSheet sheet) {
+            this.sheet = sheet;
+        }
+
+        /**
+         * 设置合并区域，须在写入行之前调用。区域不能重叠，每个区域至少包含两个单元格
+         */
+        public SheetWriter mergedRegions(List<CellRangeAddress> regions) {
+            if (rowCount > 0) {
+                throw new IllegalStateException("须在写入行之前设置合并区域");
+            }
+            for (CellRangeAddress region : regions) {
+                // 逐个校验与已有区域是否重叠的开销随区域数平方增长，由调用方保证不重叠
+                sheet.addMergedRegionUnsafe(region);
+            }
+            mergedIndex = MergedRegionIndex.of(sheet);
+            return this;
+        }
+
+        /**
+         * 设置列的样式，应用于该列写入的所有单元格（表头行使用表头样式）
+         */
+        public SheetWriter columnStyle(int column, CellStyle style) {
+            if (column < 0) {
+                throw new IllegalArgumentException("列号无效: " + column);
+            }
+            if (column >= columnStyles.length) {
+                columnStyles = Arrays.copyOf(columnStyles, column + 1);
+            }
+            columnStyles[column] = style;
+            return this;
+        }
+
+        /**
+         * 设置第一行的样式
+         */
+        public SheetWriter headerStyle(CellStyle style) {
+            this.headerStyle = style;
+            return this;
+        }
+
+        /**
+         * 设置列宽
+         *
+         * @param column 列号（从0开始）
+         * @param width  宽度，单位为字符宽度的 1/256
+         */
+        public SheetWriter columnWidth(int column, int width) {
+            sheet.setColumnWidth(column, width);
+            return this;
+        }
+
+        /**
+         * 写入下一行，空行也占一行
+         */
+        public SheetWriter writeRow(List<String> values) {
+            ensureNotWritten();
+            int rowIndex = rowCount;
+            Row row = sheet.createRow(rowIndex);
+            for (int j = 0; j < values.size(); j++) {
+                Cell cell = row.createCell(j);
+                CellStyle style = rowIndex == 0 && headerStyle != null ? headerStyle
+                        : j < columnStyles.length ? columnStyles[j] : null;
+                if (style != null) {
+                    cell.setCellStyle(style);
+                }
+
+                int regionId = mergedIndex.find(rowIndex, j);
+                if (regionId >= 0 && !mergedIndex.isTopLeft(regionId, rowIndex, j)) {
+                    // 被合并区域覆盖的单元格留空，读取时取左上角的值
+                    continue;
+                }
+                String value = values.get(j);
+                if (value != null && !value.isEmpty()) {
+                    cell.setCellValue(value);
+                }
+            }
+            rowCount++;
+            return this;
+        }
+
+        public SheetWriter writeRows(Iterable<? extends List<String>> rows) {
+            for (List<String> row : rows) {
+                writeRow(row);
+            }
+            return this;
+        }
+
+        /**
+         * 按顺序消费流中的行，不关闭流
+         */
+        public SheetWriter writeRows(Stream<? extends List<String>> rows) {
+            Iterator<? extends List<String>> it = rows.iterator();
+            while (it.hasNext()) {
+                writeRow(it.next());
+            }
+            return this;
+        }
+
+        /**
+         * @return 已写入的行数
+         */
+        public int getRowCount() {
+            return rowCount;
+        }
+    }
+}
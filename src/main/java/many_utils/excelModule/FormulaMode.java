@@ -0,0 +1,20 @@
+package many_utils.excelModule;
+
+/**
+ * 公式单元格的取值方式
+ */
+public enum FormulaMode {
+
+    /**
+     * 读取文件中保存的计算结果，按结果类型取值（数值、字符串、布尔），不计算公式，也不靠捕获异常判断类型。
+     * 结果为错误值或文件没有保存计算结果时为空字符串。默认方式，流式读取只支持这种方式
+     */
+    CACHED,
+
+    /**
+     * 读取前用同一个 {@link org.apache.poi.ss.usermodel.FormulaEvaluator} 批量计算所选范围内的公式，
+     * 结果写回单元格后按 {@link #CACHED} 取值。被引用的单元格先于引用它的公式计算，结果留在求值器缓存中，
+     * 被多个公式引用时只计算一次。适用于文件由程序生成、没有保存计算结果的情况；只支持构建工作簿的读取方式
+     */
+    EVALUATE
+}
@@ -0,0 +1,43 @@
+package many_utils.excelModule;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 批量导入的输出回调，由 {@link ExcelBatchIngester} 的输出阶段调用
+ * <p>
+ * 同一个文件的所有回调在同一个输出线程中按顺序进行；不同文件的回调可能在不同线程中并发进行，
+ * 输出线程数大于1时实现需要线程安全。
+ */
+public interface IngestSink {
+
+    /**
+     * 接收一个工作表的一批连续行（合并单元格已填充）。小文件每个工作表一批；流式读取的大文件按批次分多次交付
+     *
+     * @param file          文件路径
+     * @param sheetIndex    工作表索引（从0开始）
+     * @param sheetName     工作表名称
+     * @param firstRowIndex 本批第一行在工作表中的行号（从0开始）
+     * @param rows          本批的行数据
+     * @throws Exception 抛出异常时该文件记为失败，不再交付它的后续数据
+     */
+    void accept(Path file, int sheetIndex, String sheetName, int firstRowIndex, List<List<String>> rows) throws Exception;
+
+    /**
+     * 文件的全部数据已交付
+     *
+     * @param file 文件路径
+     * @throws Exception 抛出异常时该文件记为失败
+     */
+    default void onFileComplete(Path file) throws Exception {
+    }
+
+    /**
+     * 文件处理失败。失败前可能已交付了部分数据，需要时由实现方回滚
+     *
+     * @param file  文件路径
+     * @param error 失败原因
+     */
+    default void onFileFailed(Path file, Throwable error) {
+    }
+}
@@ -0,0 +1,184 @@
+package many_utils.excelModule;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 合并区域索引，按 (行, 列) 查找单元格所属的合并区域
+ * <p>
+ * 区域按起始行排序后存放在基本类型数组中，并以隐式区间树（按数组下标组织的平衡二叉树，
+ * 每个节点记录子树内最大的结束行）加速行方向的区间查询。
+ * 内存与合并区域数量成正比，与区域覆盖的单元格数无关；查询不分配对象。
+ * <p>
+ * 区域编号即排序后的下标，读取器可以用 {@code String[size()]} 按编号缓存合并值。
+ */
+public final class MergedRegionIndex {
+
+    private static final MergedRegionIndex EMPTY = new MergedRegionIndex(new ArrayList<>());
+
+    private final int size;
+    private final int[] firstRows;
+    private final int[] lastRows;
+    private final int[] firstCols;
+    private final int[] lastCols;
+    // 隐式区间树：maxLastRows[i] 为以 i 为根的子树内最大的结束行
+    private final int[] maxLastRows;
+    private final int rootLevel;
+
+    private MergedRegionIndex(List<CellRangeAddress> regions) {
+        List<CellRangeAddress> sorted = new ArrayList<>(regions);
+        sorted.sort(Comparator.comparingInt(CellRangeAddress::getFirstRow));
+
+        size = sorted.size();
+        firstRows = new int[size];
+        lastRows = new int[size];
+        firstCols = new int[size];
+        lastCols = new int[size];
+        maxLastRows = new int[size];
+        for (int i = 0; i < size; i++) {
+            CellRangeAddress region = sorted.get(i);
+            firstRows[i] = region.getFirstRow();
+            lastRows[i] = region.getLastRow();
+            firstCols[i] = region.getFirstColumn();
+            lastCols[i] = region.getLastColumn();
+        }
+        rootLevel = buildTree();
+    }
+
+    /**
+     * 由合并区域列表构建索引
+     *
+     * @param regions 合并区域
+     * @return 合并区域索引
+     */
+    public static MergedRegionIndex of(List<CellRangeAddress> regions) {
+        return regions.isEmpty() ? EMPTY : new MergedRegionIndex(regions);
+    }
+
+    /**
+     * 由工作表的合并区域构建索引
+     *
+     * @param sheet 工作表对象
+     * @return 合并区域索引
+     */
+    public static MergedRegionIndex of(Sheet sheet) {
+        return of(sheet.getMergedRegions());
+    }
+
+    /**
+     * 计算每个节点子树内的最大结束行，返回根节点所在层级
+     */
+    private int buildTree() {
+        if (size == 0) {
+            return -1;
+        }
+        int lastIndex = 0;
+        int last = 0;
+        for (int i = 0; i < size; i += 2) {
+            lastIndex = i;
+            last = maxLastRows[i] = lastRows[i];
+        }
+        int level = 1;
+        for (; 1 << level <= size; level++) {
+            int half = 1 << (level - 1);
+            int start = (half << 1) - 1;
+            int step = half << 2;
+            for (int i = start; i < size; i += step) {
+                int leftMax = maxLastRows[i - half];
+                int rightMax = i + half < size ? maxLastRows[i + half] : last;
+                maxLastRows[i] = Math.max(lastRows[i], Math.max(leftMax, rightMax));
+            }
+            lastIndex = (lastIndex >> level & 1) != 0 ? lastIndex - half : lastIndex + half;
+            if (lastIndex < size && maxLastRows[lastIndex] > last) {
+                last = maxLastRows[lastIndex];
+            }
+        }
+        return level - 1;
+    }
+
+    /**
+     * 查找包含指定单元格的合并区域
+     *
+     * @param row 行号（从0开始）
+     * @param col 列号（从0开始）
+     * @return 区域编号，不在任何合并区域内时返回 -1
+     */
+    public int find(int row, int col) {
+        if (size == 0) {
+            return -1;
+        }
+        return find((1 << rootLevel) - 1, rootLevel, row, col);
+    }
+
+    private int find(int node, int level, int row, int col) {
+        if (level <= 3) {
+            // 小子树直接线性扫描
+            int start = node >> level << level;
+            int end = Math.min(start + (1 << (level + 1)) - 1, size);
+            for (int i = start; i < end && firstRows[i] <= row; i++) {
+                if (contains(i, row, col)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        int half = 1 << (level - 1);
+        int left = node - half;
+        if (left >= size || maxLastRows[left] >= row) {
+            int found = find(left, level - 1, row, col);
+            if (found >= 0) {
+                return found;
+            }
+        }
+        if (node < size && firstRows[node] <= row) {
+            if (contains(node, row, col)) {
+                return node;
+            }
+            return find(node + half, level - 1, row, col);
+        }
+        return -1;
+    }
+
+    private boolean contains(int id, int row, int col) {
+        return row <= lastRows[id] && firstCols[id] <= col && col <= lastCols[id];
+    }
+
+    /**
+     * @return 合并区域数量
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getFirstRow(int id) {
+        return firstRows[id];
+    }
+
+    public int getLastRow(int id) {
+        return lastRows[id];
+    }
+
+    public int getFirstColumn(int id) {
+        return firstCols[id];
+    }
+
+    public int getLastColumn(int id) {
+        return lastCols[id];
+    }
+
+    /**
+     * 判断单元格是否为合并区域的左上角单元格
+     */
+    public boolean isTopLeft(int id, int row, int col) {
+        return firstRows[id] == row && firstCols[id] == col;
+    }
+}
@@ -0,0 +1,16 @@
+package many_utils.excelModule;
+
+/**
+ * 读取指标的接收方，通过 {@link ExcelPOIReaderUtil#setMetricsSink(MetricsSink)} 注册
+ * <p>
+ * 每读完一个工作表回调一次，在读取线程中同步调用，实现应尽量轻量（例如写入计数器或日志），并保证线程安全。
+ * 回调抛出的异常被忽略，不影响读取结果。
+ */
+@FunctionalInterface
+public interface MetricsSink {
+
+    /**
+     * @param metrics 一个工作表的读取指标
+     */
+    void onSheetRead(ReadMetrics metrics);
+}
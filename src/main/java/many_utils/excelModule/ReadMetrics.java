@@ -0,0 +1,265 @@
+package many_utils.excelModule;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一个工作表的读取指标：各阶段耗时、行数、单元格数、输入字节数、合并区域数和分配的字节数
+ * <p>
+ * 构建工作簿的读取方式分阶段计时；流式读取在同一遍解析中完成解析、合并单元格填充和转换，全部计入 {@link Phase#PARSE}。
+ * 一次读取多个工作表时，工作簿级的阶段（{@link Phase#OPEN}、{@link Phase#PARSE}）计入第一个工作表。
+ */
+public final class ReadMetrics {
+
+    /**
+     * 读取阶段
+     */
+    public enum Phase {
+        /**
+         * 打开文件容器：xlsx 解压 zip 包，xls 读取 OLE2 文件系统
+         */
+        OPEN,
+        /**
+         * 解析工作簿：xlsx 解析 XML 构建对象模型，xls 解析 BIFF 记录；流式读取的全部耗时
+         */
+        PARSE,
+        /**
+         * 构建合并区域索引、读取合并区域左上角的值
+         */
+        MERGE,
+        /**
+         * 批量计算公式，仅 {@link FormulaMode#EVALUATE}
+         */
+        EVALUATE,
+        /**
+         * 单元格转为字符串
+         */
+        CONVERT
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final String filePath;
+    private final int sheetIndex;
+    private final String sheetName;
+    private final boolean streaming;
+    private final long inputBytes;
+    private final long[] phaseNanos;
+    private final long rowCount;
+    private final long cellCount;
+    private final int mergedRegionCount;
+    private final long allocatedBytes;
+
+    private ReadMetrics(Recorder recorder, int sheetIndex, String sheetName) {
+        this.filePath = recorder.filePath;
+        this.sheetIndex = sheetIndex;
+        this.sheetName = sheetName;
+        this.streaming = recorder.streaming;
+        this.inputBytes = recorder.inputBytes;
+        this.phaseNanos = recorder.phaseNanos.clone();
+        this.rowCount = recorder.rowCount;
+        this.cellCount = recorder.cellCount;
+        this.mergedRegionCount = recorder.mergedRegionCount;
+        long allocated = Recorder.allocatedBytes();
+        this.allocatedBytes = allocated < 0 ? -1 : allocated - recorder.startAllocated;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public int getSheetIndex() {
+        return sheetIndex;
+    }
+
+    /**
+     * @return 工作表名称，流式读取时为 null
+     */
+    public String getSheetName() {
+        return sheetName;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * @return 所在文件（或内存数据）的字节数
+     */
+    public long getInputBytes() {
+        return inputBytes;
+    }
+
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    public long getTotalNanos() {
+        long total = 0;
+        for (long nanos : phaseNanos) {
+            total += nanos;
+        }
+        return total;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * @return 合并区域数，流式读取时返回 -1
+     */
+    public int getMergedRegionCount() {
+        return mergedRegionCount;
+    }
+
+    /**
+     * @return 读取线程在该工作表上分配的字节数（HotSpot 线程分配计数），不支持时返回 -1
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public double getRowsPerSecond() {
+        return perSecond(rowCount);
+    }
+
+    public double getCellsPerSecond() {
+        return perSecond(cellCount);
+    }
+
+    private double perSecond(long count) {
+        long nanos = getTotalNanos();
+        return nanos == 0 ? 0 : count * 1e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ReadMetrics{")
+                .append(filePath).append('#').append(sheetIndex);
+        if (sheetName != null) {
+            sb.append('(').append(sheetName).append(')');
+        }
+        sb.append(streaming ? ", streaming" : "");
+        for (Phase phase : PHASES) {
+            long nanos = phaseNanos[phase.ordinal()];
+            if (nanos > 0) {
+                sb.append(", ").append(phase.name().toLowerCase()).append('=')
+                        .append(TimeUnit.NANOSECONDS.toMillis(nanos)).append("ms");
+            }
+        }
+        return sb.append(", rows=").append(rowCount)
+                .append(", cells=").append(cellCount)
+                .append(", rows/s=").append((long) getRowsPerSecond())
+                .append(", cells/s=").append((long) getCellsPerSecond())
+                .append(", bytes=").append(inputBytes)
+                .append(", mergedRegions=").append(mergedRegionCount)
+                .append(", allocated=").append(allocatedBytes)
+                .append('}').toString();
+    }
+
+    /**
+     * 读取过程中收集指标，只在注册了 {@link MetricsSink} 时创建；未注册时读取路径只多一次 null 判断
+     */
+    static final class Recorder {
+        private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+        private final MetricsSink sink;
+        private final String filePath;
+        private final boolean streaming;
+        private final long inputBytes;
+        private final long[] phaseNanos = new long[PHASES.length];
+        private long mark;
+        private long startAllocated;
+        private long rowCount;
+        private long cellCount;
+        private int mergedRegionCount;
+
+        private Recorder(MetricsSink sink, String filePath, long inputBytes, boolean streaming) {
+            this.sink = sink;
+            this.filePath = filePath;
+            this.streaming = streaming;
+            this.inputBytes = inputBytes;
+            this.mergedRegionCount = streaming ? -1 : 0;
+            this.startAllocated = allocatedBytes();
+            this.mark = System.nanoTime();
+        }
+
+        /**
+         * @return 未注册接收方时返回 null
+         */
+        static Recorder start(MetricsSink sink, String filePath, boolean streaming) {
+            return sink == null ? null : new Recorder(sink, filePath, new File(filePath).length(), streaming);
+        }
+
+        /**
+         * 输入不是文件路径时（通道、内存数据）使用，source 只用于标识
+         *
+         * @return 未注册接收方时返回 null
+         */
+        static Recorder start(MetricsSink sink, String source, long inputBytes, boolean streaming) {
+            return sink == null ? null : new Recorder(sink, source, inputBytes, streaming);
+        }
+
+        /**
+         * 上一个阶段结束以来的耗时计入该阶段
+         */
+        void phase(Phase phase) {
+            long now = System.nanoTime();
+            phaseNanos[phase.ordinal()] += now - mark;
+            mark = now;
+        }
+
+        void rows(long rows, long cells) {
+            rowCount += rows;
+            cellCount += cells;
+        }
+
+        void mergedRegions(int count) {
+            mergedRegionCount = count;
+        }
+
+        /**
+         * 一个工作表读完，回调接收方并清零，继续统计下一个工作表
+         */
+        void finish(int sheetIndex, String sheetName) {
+            ReadMetrics metrics = new ReadMetrics(this, sheetIndex, sheetName);
+            try {
+                sink.onSheetRead(metrics);
+            } catch (RuntimeException e) {
+                // 指标回调不影响读取
+            }
+            Arrays.fill(phaseNanos, 0);
+            rowCount = 0;
+            cellCount = 0;
+            mergedRegionCount = streaming ? -1 : 0;
+            startAllocated = allocatedBytes();
+            mark = System.nanoTime();
+        }
+
+        static long allocatedBytes() {
+            return THREADS == null ? -1 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        private static com.sun.management.ThreadMXBean threadBean() {
+            try {
+                java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+                if (bean instanceof com.sun.management.ThreadMXBean) {
+                    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+                    if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                        return threads;
+                    }
+                }
+            } catch (LinkageError | RuntimeException e) {
+                // 非 HotSpot 虚拟机
+            }
+            return null;
+        }
+    }
+}
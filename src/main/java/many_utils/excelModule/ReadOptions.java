@@ -0,0 +1,217 @@
+package many_utils.excelModule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 读取选项：行范围、列投影、按表头名称投影、公式取值方式、读取方式
+ * <p>
+ * 未指定列时，每行的范围与 readSheetWithMerge 一致（从该行第一个单元格到最后一个单元格）；
+ * 指定列（或表头名称）后，每行按指定顺序输出固定数量的值，缺失的行和单元格为空字符串。
+ * 合并单元格始终取左上角单元格的值，即使左上角位于所选行列之外。
+ *
+ * <pre>
+ * // 预览前 1000 行
+ * new ReadOptions().rows(0, 999);
+ * // 按表头取三列，数据从表头下一行开始
+ * new ReadOptions().headers("姓名", "部门", "金额");
+ * </pre>
+ */
+public final class ReadOptions {
+
+    private int firstRow = 0;
+    private int lastRow = Integer.MAX_VALUE;
+    private boolean rowRangeSet;
+    private int[] columns;
+    private List<String> headerNames;
+    private int headerRow = 0;
+    private FormulaMode formulaMode = FormulaMode.CACHED;
+    private ReadStrategy strategy = ReadStrategy.AUTO;
+
+    /**
+     * 默认选项：读取所有行和列
+     */
+    public static ReadOptions all() {
+        return new ReadOptions();
+    }
+
+    /**
+     * 只读取行号在 [firstRow, lastRow] 之间的行（从0开始，闭区间）
+     */
+    public ReadOptions rows(int firstRow, int lastRow) {
+        if (firstRow < 0 || lastRow < firstRow) {
+            throw new IllegalArgumentException("行范围无效: [" + firstRow + ", " + lastRow + "]");
+        }
+        this.firstRow = firstRow;
+        this.lastRow = lastRow;
+        this.rowRangeSet = true;
+        return this;
+    }
+
+    /**
+     * 只读取指定列（从0开始），每行按给定顺序输出
+     */
+    public ReadOptions columns(int... columns) {
+        if (columns == null || columns.length == 0) {
+            throw new IllegalArgumentException("列不能为空");
+        }
+        for (int column : columns) {
+            if (column < 0) {
+                throw new IllegalArgumentException("列号无效: " + column);
+            }
+        }
+        this.columns = columns.clone();
+        this.headerNames = null;
+        return this;
+    }
+
+    /**
+     * 按表头名称选择列，每行按给定顺序输出；未指定行范围时从表头的下一行开始读取
+     */
+    public ReadOptions headers(String... names) {
+        if (names == null || names.length == 0) {
+            throw new IllegalArgumentException("表头名称不能为空");
+        }
+        this.headerNames = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(names)));
+        this.columns = null;
+        return this;
+    }
+
+    /**
+     * 表头所在行（从0开始），默认第0行
+     */
+    public ReadOptions headerRow(int headerRow) {
+        if (headerRow < 0) {
+            throw new IllegalArgumentException("表头行号无效: " + headerRow);
+        }
+        this.headerRow = headerRow;
+        return this;
+    }
+
+    /**
+     * 公式单元格的取值方式，默认 {@link FormulaMode#CACHED}
+     */
+    public ReadOptions formulaMode(FormulaMode formulaMode) {
+        this.formulaMode = Objects.requireNonNull(formulaMode, "formulaMode");
+        return this;
+    }
+
+    /**
+     * readExcelWithMerge 的读取方式，默认 {@link ReadStrategy#AUTO}，指定后不再自动选择
+     */
+    public ReadOptions strategy(ReadStrategy strategy) {
+        this.strategy = Objects.requireNonNull(strategy, "strategy");
+        return this;
+    }
+
+    public int getFirstRow() {
+        if (!rowRangeSet && headerNames != null) {
+            return headerRow + 1;
+        }
+        return firstRow;
+    }
+
+    public int getLastRow() {
+        return lastRow;
+    }
+
+    /**
+     * @return 指定的列，未指定时返回 null
+     */
+    public int[] getColumns() {
+        return columns == null ? null : columns.clone();
+    }
+
+    /**
+     * @return 表头名称，未指定时返回 null
+     */
+    public List<String> getHeaderNames() {
+        return headerNames;
+    }
+
+    public int getHeaderRow() {
+        return headerRow;
+    }
+
+    public FormulaMode getFormulaMode() {
+        return formulaMode;
+    }
+
+    public ReadStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * @return 没有限制行列范围且按默认方式读取公式，读取结果与不带选项的读取相同
+     */
+    boolean selectsAll() {
+        return getFirstRow() == 0 && lastRow == Integer.MAX_VALUE && columns == null && headerNames == null
+                && formulaMode == FormulaMode.CACHED;
+    }
+
+    boolean hasHeaders() {
+        return headerNames != null;
+    }
+
+    boolean includesRow(int row) {
+        return row >= getFirstRow() && row <= lastRow;
+    }
+
+    /**
+     * 检查选项组合：按表头投影时表头必须位于数据行之前，流式读取才能在输出数据前确定列
+     */
+    void validate() {
+        if (headerNames != null && headerRow >= getFirstRow()) {
+            throw new IllegalArgumentException("表头行必须位于数据行之前: headerRow=" + headerRow + ", firstRow=" + getFirstRow());
+        }
+    }
+
+    /**
+     * 流式读取时的检查：除 {@link #validate()} 外，流式读取没有工作簿对象，不能计算公式
+     */
+    void validateForStreaming() {
+        validate();
+        if (formulaMode != FormulaMode.CACHED) {
+            throw new IllegalArgumentException("流式读取不支持公式取值方式: " + formulaMode);
+        }
+    }
+
+    /**
+     * 按表头名称解析列号
+     *
+     * @param header 表头行的值，下标即列号
+     * @return 与表头名称顺序对应的列号
+     */
+    int[] resolveColumns(List<String> header) {
+        int[] resolved = new int[headerNames.size()];
+        for (int i = 0; i < resolved.length; i++) {
+            String name = headerNames.get(i);
+            int column = -1;
+            for (int j = 0; j < header.size(); j++) {
+                String value = header.get(j);
+                if (value != null && value.trim().equals(name.trim())) {
+                    column = j;
+                    break;
+                }
+            }
+            if (column < 0) {
+                throw new IllegalArgumentException("表头中不存在列: " + name);
+            }
+            resolved[i] = column;
+        }
+        return resolved;
+    }
+
+    @Override
+    public String toString() {
+        return "ReadOptions{rows=[" + getFirstRow() + ", " + lastRow + "]"
+                + (columns != null ? ", columns=" + Arrays.toString(columns) : "")
+                + (headerNames != null ? ", headers=" + headerNames + ", headerRow=" + headerRow : "")
+                + (formulaMode != FormulaMode.CACHED ? ", formulaMode=" + formulaMode : "")
+                + (strategy != ReadStrategy.AUTO ? ", strategy=" + strategy : "")
+                + "}";
+    }
+}
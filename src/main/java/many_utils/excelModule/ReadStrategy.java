@@ -0,0 +1,24 @@
+package many_utils.excelModule;
+
+/**
+ * readExcelWithMerge 的读取方式
+ */
+public enum ReadStrategy {
+
+    /**
+     * 按工作簿大小估算构建工作簿所需的内存，与堆预算比较后自动选择（默认）
+     *
+     * @see ExcelPOIReaderUtil#setHeapBudget(long)
+     */
+    AUTO,
+
+    /**
+     * 构建完整的工作簿对象后读取
+     */
+    DOM,
+
+    /**
+     * 用事件模型流式解析，只在内存中保留结果
+     */
+    STREAMING
+}
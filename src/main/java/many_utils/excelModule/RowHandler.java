@@ -0,0 +1,31 @@
+package many_utils.excelModule;
+
+import java.util.List;
+
+/**
+ * 流式读取时的行回调，每解析完一行调用一次
+ */
+public interface RowHandler {
+
+    /**
+     * 处理一行数据（合并单元格已填充为左上角单元格的值）
+     *
+     * @param rowIndex 行号（从0开始）
+     * @param rowData  该行的字符串数据，回调返回后不再被读取器持有
+     */
+    void handleRow(int rowIndex, List<String> rowData);
+
+    /**
+     * 处理一行数据，同时给出第一个值所在的列号；行数据从该行第一个单元格开始，不一定从第0列开始。
+     * 读取选项指定了列投影时行数据按投影顺序排列，列号为0
+     * <p>
+     * 读取器调用这个方法，默认忽略列号，转给 {@link #handleRow(int, List)}
+     *
+     * @param rowIndex    行号（从0开始）
+     * @param firstColumn 第一个值所在的列号（从0开始），空行为0
+     * @param rowData     该行的字符串数据，回调返回后不再被读取器持有
+     */
+    default void handleRow(int rowIndex, int firstColumn, List<String> rowData) {
+        handleRow(rowIndex, rowData);
+    }
+}
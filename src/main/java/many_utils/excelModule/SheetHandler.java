@@ -0,0 +1,23 @@
+package many_utils.excelModule;
+
+/**
+ * 依次流式读取文件中所有工作表时的回调
+ */
+interface SheetHandler {
+
+    /**
+     * 开始读取一个工作表
+     *
+     * @param sheetIndex 工作表索引（从0开始）
+     * @param sheetName  工作表名称
+     * @return 该工作表的行回调
+     */
+    RowHandler startSheet(int sheetIndex, String sheetName);
+
+    /**
+     * 工作表读取完毕
+     *
+     * @param sheetIndex 工作表索引（从0开始）
+     */
+    void endSheet(int sheetIndex);
+}
@@ -0,0 +1,146 @@
+package many_utils.excelModule;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 按需解析的行迭代器，合并单元格已填充
+ * <p>
+ * 每次 {@link #hasNext()} 只解析到下一行为止；迭代结束或调用 {@link #close()} 后立即停止解析并释放文件。
+ * 提前结束迭代时必须关闭，建议使用 try-with-resources：
+ *
+ * <pre>
+ * try (SheetRowIterator rows = XlsxStreamingReader.iterator("/data/big.xlsx", 0)) {
+ *     while (rows.hasNext()) {
+ *         List&lt;String&gt; row = rows.next();
+ *         if (!validate(row)) {
+ *             break;
+ *         }
+ *     }
+ * }
+ * </pre>
+ * 非线程安全。
+ */
+public final class SheetRowIterator implements Iterator<List<String>>, Closeable {
+
+    /**
+     * 行数据来源：每次推进解析一部分内容，解析出的行通过 {@link SheetRowIterator#sink()} 回调送入迭代器
+     */
+    interface Source extends Closeable {
+        /**
+         * @return 还有未解析的内容时返回 true
+         */
+        boolean advance() throws IOException;
+    }
+
+    // 一次推进可能产生多行（中间缺失的空行）
+    private final ArrayDeque<List<String>> rows = new ArrayDeque<>();
+    private final ArrayDeque<Integer> rowIndexes = new ArrayDeque<>();
+    private Source source;
+    private boolean finished;
+    private boolean released;
+    private int rowIndex = -1;
+
+    SheetRowIterator() {
+    }
+
+    /**
+     * @return 接收解析结果的行回调，交给 Source 使用
+     */
+    RowHandler sink() {
+        return (index, rowData) -> {
+            rowIndexes.add(index);
+            rows.add(rowData);
+        };
+    }
+
+    void setSource(Source source) {
+        this.source = source;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (rows.isEmpty() && !finished) {
+            try {
+                if (!source.advance()) {
+                    // 解析完成，及时释放文件；已解析出的行仍可继续读取
+                    finished = true;
+                    release();
+                }
+            } catch (IOException e) {
+                closeQuietly();
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException | Error e) {
+                closeQuietly();
+                throw e;
+            }
+        }
+        return !rows.isEmpty();
+    }
+
+    @Override
+    public List<String> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        rowIndex = rowIndexes.poll();
+        return rows.poll();
+    }
+
+    /**
+     * @return 最近一次 {@link #next()} 返回的行在工作表中的行号（从0开始），尚未调用时返回 -1
+     */
+    public int getRowIndex() {
+        return rowIndex;
+    }
+
+    /**
+     * 转为顺序流，关闭流时停止解析并释放文件
+     */
+    public Stream<List<String>> stream() {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * 停止解析并释放文件，可重复调用
+     */
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        rows.clear();
+        rowIndexes.clear();
+        release();
+    }
+
+    private void release() throws IOException {
+        if (!released) {
+            released = true;
+            source.close();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            // 已有异常在抛出
+        }
+    }
+}
@@ -0,0 +1,491 @@
+package many_utils.excelModule;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * 已解析工作表的二进制快照，以内存映射方式打开，按需读取行
+ * <p>
+ * 文件布局（大端序，偏移量均为 int，单个快照不超过 2GB）：
+ * <pre>
+ * 头部（64 字节）    magic, version, flags, sheetIndex, 源文件大小, 源文件修改时间,
+ *                   firstRowNum, rowCount, dictionarySize, 字典偏移表位置, 行偏移表位置, columnCount,
+ *                   源文件内容指纹（首尾各 64KB 的 CRC32）
+ * 字典字符串        UTF-8 字节依次排列
+ * 字典偏移表        int[dictionarySize + 1]，第 i 个字符串为 [offset[i], offset[i + 1])
+ * 行数据            每行：int firstCellNum, int lastCellNum，随后每个单元格：
+ *                   byte 类型 + 数值/日期 double | 布尔 byte | 字符串 int 字典编码 | 空白无数据
+ * 行偏移表          int[rowCount]
+ * </pre>
+ * 合并单元格在写入前已填充为左上角单元格的值；字符串视图与 readSheetWithMerge 一致。
+ * <p>
+ * 单元格变长存储，按行列随机访问（getType、getNumber、getBoolean、getString）需要从行首逐个跳过，
+ * 代价与该行列数成正比；整行或整表读取用 {@link #getRow}、{@link #accept}，每个单元格只经过一次。
+ * <p>
+ * 映射在快照对象被回收前一直有效，Java 8 没有主动解除映射的接口。Windows 下文件被映射时不能删除或替换，
+ * 因此重新生成同一路径的快照前要先丢弃旧快照的所有引用；{@link #isUpToDate(Path, Path, int)} 只读头部，不建立映射。
+ */
+public final class SheetSnapshot {
+
+    private static final int MAGIC = 0x584C534E;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+    private static final int FLAG_DATE1904 = 1;
+    // 内容指纹取源文件首尾各一块
+    private static final int FINGERPRINT_BLOCK = 64 * 1024;
+
+    private static final byte BLANK = 0;
+    private static final byte NUMERIC = 1;
+    private static final byte DATE = 2;
+    private static final byte BOOLEAN = 3;
+    private static final byte STRING = 4;
+    private static final ColumnarSheet.ValueType[] VALUE_TYPES = ColumnarSheet.ValueType.values();
+
+    private final ByteBuffer buffer;
+    private final boolean date1904;
+    private final int firstRowNum;
+    private final int rowCount;
+    private final int columnCount;
+    private final int dictionarySize;
+    private final int dictionaryIndexOffset;
+    private final int rowIndexOffset;
+    // 按需解码的字典字符串
+    private final String[] dictionary;
+
+    private SheetSnapshot(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("不是有效的工作表快照文件");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("不支持的快照版本: " + buffer.getInt(4));
+        }
+        this.buffer = buffer;
+        this.date1904 = (buffer.getInt(8) & FLAG_DATE1904) != 0;
+        this.firstRowNum = buffer.getInt(32);
+        this.rowCount = buffer.getInt(36);
+        this.dictionarySize = buffer.getInt(40);
+        this.dictionaryIndexOffset = buffer.getInt(44);
+        this.rowIndexOffset = buffer.getInt(48);
+        this.columnCount = buffer.getInt(52);
+        this.dictionary = new String[dictionarySize];
+    }
+
+    /**
+     * 以内存映射方式打开快照文件
+     *
+     * @param file 快照文件
+     * @return 快照
+     * @throws IOException 文件读取异常或格式错误
+     */
+    public static SheetSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("快照文件超过 2GB: " + file);
+            }
+            // 映射在通道关闭后依然有效
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return new SheetSnapshot(buffer);
+        }
+    }
+
+    /**
+     * 把列式数据写为快照文件，先写临时文件再原子替换
+     *
+     * @param sheet      列式数据
+     * @param sheetIndex 工作表索引
+     * @param source     源 Excel 文件，用于记录大小、修改时间和内容指纹，可为 null
+     * @param file       快照文件
+     * @throws IOException 文件写入异常
+     */
+    public static void write(ColumnarSheet sheet, int sheetIndex, Path source, Path file) throws IOException {
+        long sourceSize = 0;
+        long sourceModified = 0;
+        long sourceFingerprint = 0;
+        if (source != null) {
+            BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+            sourceSize = attributes.size();
+            sourceModified = attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+            sourceFingerprint = fingerprint(source, sourceSize);
+        }
+
+        Path dir = file.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            int dictionarySize = sheet.getDictionarySize();
+            int[] dictionaryOffsets = new int[dictionarySize + 1];
+            int[] rowOffsets = new int[sheet.getRowCount()];
+            int dictionaryIndexOffset;
+            int rowIndexOffset;
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                // 头部先占位，写完后回填
+                out.write(new byte[HEADER_SIZE]);
+
+                for (int i = 0; i < dictionarySize; i++) {
+                    dictionaryOffsets[i] = offset(out);
+                    out.write(sheet.getDictionaryValue(i).getBytes(StandardCharsets.UTF_8));
+                }
+                dictionaryOffsets[dictionarySize] = offset(out);
+                dictionaryIndexOffset = offset(out);
+                for (int dictionaryOffset : dictionaryOffsets) {
+                    out.writeInt(dictionaryOffset);
+                }
+
+                for (int row = 0; row < sheet.getRowCount(); row++) {
+                    rowOffsets[row] = offset(out);
+                    writeRow(out, sheet, row);
+                }
+                rowIndexOffset = offset(out);
+                for (int rowOffset : rowOffsets) {
+                    out.writeInt(rowOffset);
+                }
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(sheet.isDate1904() ? FLAG_DATE1904 : 0)
+                    .putInt(sheetIndex)
+                    .putLong(sourceSize)
+                    .putLong(sourceModified)
+                    .putInt(sheet.getFirstRowNum())
+                    .putInt(sheet.getRowCount())
+                    .putInt(dictionarySize)
+                    .putInt(dictionaryIndexOffset)
+                    .putInt(rowIndexOffset)
+                    .putInt(sheet.getColumnCount())
+                    .putLong(sourceFingerprint);
+            header.clear();
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                channel.force(false);
+            }
+
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static int offset(DataOutputStream out) throws IOException {
+        // DataOutputStream 计数溢出时停在 Integer.MAX_VALUE
+        int size = out.size();
+        if (size == Integer.MAX_VALUE) {
+            throw new IOException("快照文件超过 2GB");
+        }
+        return size;
+    }
+
+    private static void writeRow(DataOutputStream out, ColumnarSheet sheet, int row) throws IOException {
+        int first = sheet.getRowFirstCellNum(row);
+        int last = sheet.getRowLastCellNum(row);
+        out.writeInt(first);
+        out.writeInt(last);
+        if (first < 0 || last < 0) {
+            return;
+        }
+        for (int col = first; col < last; col++) {
+            switch (sheet.getType(row, col)) {
+                case NUMERIC:
+                    out.writeByte(NUMERIC);
+                    out.writeDouble(sheet.getNumber(row, col));
+                    break;
+                case DATE:
+                    out.writeByte(DATE);
+                    out.writeDouble(sheet.getNumber(row, col));
+                    break;
+                case BOOLEAN:
+                    out.writeByte(BOOLEAN);
+                    out.writeBoolean(sheet.getBoolean(row, col));
+                    break;
+                case STRING:
+                    out.writeByte(STRING);
+                    out.writeInt(sheet.getStringCode(row, col));
+                    break;
+                default:
+                    out.writeByte(BLANK);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 判断快照是否由指定源文件的当前版本生成
+     *
+     * @param source     源 Excel 文件
+     * @param sheetIndex 工作表索引
+     * @return 源文件大小、修改时间、内容指纹和工作表都一致时返回 true
+     * @throws IOException 文件读取异常
+     */
+    public boolean isUpToDate(Path source, int sheetIndex) throws IOException {
+        return matches(buffer, source, sheetIndex);
+    }
+
+    /**
+     * 只读取快照文件头部判断是否由指定源文件的当前版本生成，不建立内存映射
+     *
+     * @param file       快照文件
+     * @param source     源 Excel 文件
+     * @param sheetIndex 工作表索引
+     * @return 快照有效且与源文件一致时返回 true，快照格式错误或版本不符时返回 false
+     * @throws IOException 文件读取异常
+     */
+    public static boolean isUpToDate(Path file, Path source, int sheetIndex) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // 读满头部或到达文件末尾
+            }
+        }
+        return !header.hasRemaining() && header.getInt(0) == MAGIC && header.getInt(4) == VERSION
+                && matches(header, source, sheetIndex);
+    }
+
+    private static boolean matches(ByteBuffer header, Path source, int sheetIndex) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        return header.getInt(12) == sheetIndex
+                && header.getLong(16) == attributes.size()
+                && header.getLong(24) == attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS)
+                && header.getLong(56) == fingerprint(source, attributes.size());
+    }
+
+    /**
+     * 源文件内容指纹：高 32 位为首块的 CRC32，低 32 位为末块的 CRC32，
+     * 大小和修改时间都被保留时（复制、解压、回滚）仍能发现内容不同
+     */
+    private static long fingerprint(Path source, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long head = blockCrc(channel, 0, (int) Math.min(size, FINGERPRINT_BLOCK));
+            long tail = blockCrc(channel, Math.max(0, size - FINGERPRINT_BLOCK), (int) Math.min(size, FINGERPRINT_BLOCK));
+            return head << 32 | tail;
+        }
+    }
+
+    private static long blockCrc(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(length);
+        while (block.hasRemaining() && channel.read(block, position + block.position()) >= 0) {
+            // 读满一块或到达文件末尾
+        }
+        CRC32 crc = new CRC32();
+        crc.update(block.array(), 0, block.position());
+        return crc.getValue();
+    }
+
+    public int getFirstRowNum() {
+        return firstRowNum;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public int getRowFirstCellNum(int row) {
+        return buffer.getInt(rowOffset(row));
+    }
+
+    public int getRowLastCellNum(int row) {
+        return buffer.getInt(rowOffset(row) + 4);
+    }
+
+    /**
+     * 按行列读取单元格类型，需要跳过该行前面的单元格，代价与列号成正比
+     */
+    public ColumnarSheet.ValueType getType(int row, int col) {
+        int pos = cellOffset(row, col);
+        return VALUE_TYPES[pos < 0 ? BLANK : buffer.get(pos)];
+    }
+
+    /**
+     * @return 数值或日期单元格的数值（日期为 Excel 序列值），其他类型返回 NaN
+     */
+    public double getNumber(int row, int col) {
+        int pos = cellOffset(row, col);
+        if (pos < 0) {
+            return Double.NaN;
+        }
+        byte type = buffer.get(pos);
+        return type == NUMERIC || type == DATE ? buffer.getDouble(pos + 1) : Double.NaN;
+    }
+
+    public boolean getBoolean(int row, int col) {
+        int pos = cellOffset(row, col);
+        return pos >= 0 && buffer.get(pos) == BOOLEAN && buffer.get(pos + 1) != 0;
+    }
+
+    /**
+     * 获取单元格的字符串值，格式与 ExcelPOIReaderUtil.getCellValueAsString 一致
+     */
+    public String getString(int row, int col) {
+        int pos = cellOffset(row, col);
+        return pos < 0 ? "" : cellString(pos);
+    }
+
+    /**
+     * 获取一行的字符串值，与 readSheetWithMerge 的对应行一致
+     */
+    public List<String> getRow(int row) {
+        int pos = rowOffset(row);
+        int first = buffer.getInt(pos);
+        int last = buffer.getInt(pos + 4);
+        if (first < 0 || last < 0) {
+            return new ArrayList<>();
+        }
+        List<String> rowData = new ArrayList<>(last - first);
+        pos += 8;
+        for (int col = first; col < last; col++) {
+            rowData.add(cellString(pos));
+            pos += cellLength(buffer.get(pos));
+        }
+        return rowData;
+    }
+
+    /**
+     * 按单元格类型依次回调所有行，范围与 {@link #asRows()} 一致，行号为工作表中的行号；
+     * 数值和布尔值直接从映射中解码，不分配对象，字符串首次访问时解码后缓存
+     */
+    public void accept(CellVisitor visitor) {
+        for (int i = 0; i < rowCount; i++) {
+            int rowNum = firstRowNum + i;
+            int pos = rowOffset(i);
+            int first = buffer.getInt(pos);
+            int last = buffer.getInt(pos + 4);
+            pos += 8;
+            for (int col = Math.max(first, 0); col < last; col++) {
+                byte type = buffer.get(pos);
+                switch (type) {
+                    case NUMERIC:
+                        visitor.onNumeric(rowNum, col, buffer.getDouble(pos + 1));
+                        break;
+                    case DATE:
+                        visitor.onDate(rowNum, col, DateUtil.getJavaDate(buffer.getDouble(pos + 1), date1904).getTime());
+                        break;
+                    case BOOLEAN:
+                        visitor.onBoolean(rowNum, col, buffer.get(pos + 1) != 0);
+                        break;
+                    case STRING:
+                        visitor.onString(rowNum, col, dictionaryValue(buffer.getInt(pos + 1)));
+                        break;
+                    default:
+                        visitor.onBlank(rowNum, col);
+                        break;
+                }
+                pos += cellLength(type);
+            }
+            visitor.onRowEnd(rowNum);
+        }
+    }
+
+    /**
+     * 与 readSheetWithMerge 返回值一致的按行视图，访问时才解码
+     */
+    public List<List<String>> asRows() {
+        return new AbstractList<List<String>>() {
+            @Override
+            public List<String> get(int index) {
+                return getRow(index);
+            }
+
+            @Override
+            public int size() {
+                return rowCount;
+            }
+        };
+    }
+
+    private int rowOffset(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("行下标越界: " + row);
+        }
+        return buffer.getInt(rowIndexOffset + 4 * row);
+    }
+
+    /**
+     * 单元格在映射中的位置，不在该行范围内时返回 -1；单元格变长，需从行首逐个跳过
+     */
+    private int cellOffset(int row, int col) {
+        int pos = rowOffset(row);
+        int first = buffer.getInt(pos);
+        int last = buffer.getInt(pos + 4);
+        if (first < 0 || col < first || col >= last) {
+            return -1;
+        }
+        pos += 8;
+        for (int j = first; j < col; j++) {
+            pos += cellLength(buffer.get(pos));
+        }
+        return pos;
+    }
+
+    private String cellString(int pos) {
+        switch (buffer.get(pos)) {
+            case NUMERIC:
+                return String.valueOf(buffer.getDouble(pos + 1));
+            case DATE:
+                return DateUtil.getJavaDate(buffer.getDouble(pos + 1), date1904).toString();
+            case BOOLEAN:
+                return String.valueOf(buffer.get(pos + 1) != 0);
+            case STRING:
+                return dictionaryValue(buffer.getInt(pos + 1));
+            default:
+                return "";
+        }
+    }
+
+    private String dictionaryValue(int code) {
+        String value = dictionary[code];
+        if (value == null) {
+            int start = buffer.getInt(dictionaryIndexOffset + 4 * code);
+            int end = buffer.getInt(dictionaryIndexOffset + 4 * (code + 1));
+            byte[] bytes = new byte[end - start];
+            ByteBuffer slice = buffer.duplicate();
+            slice.position(start);
+            slice.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            dictionary[code] = value;
+        }
+        return value;
+    }
+
+    private static int cellLength(byte type) {
+        switch (type) {
+            case NUMERIC:
+            case DATE:
+                return 9;
+            case BOOLEAN:
+                return 2;
+            case STRING:
+                return 5;
+            default:
+                return 1;
+        }
+    }
+}
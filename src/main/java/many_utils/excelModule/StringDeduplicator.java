@@ -0,0 +1,146 @@
+package many_utils.excelModule;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单元格字符串去重，让重复出现的值共享同一个 String 实例
+ * <p>
+ * 两种方式：
+ * <ul>
+ *     <li>共享字符串：按共享字符串表（xlsx 的 sharedStrings.xml、xls 的 SST 记录）的下标缓存，命中时不再创建新字符串。
+ *     下标缓存只对应一张表，传入另一张表时清空重建，因此可以跨工作簿复用，但交替读取不同工作簿时缓存不会命中</li>
+ *     <li>其他字符串（内联字符串、公式结果等）：有界的直接映射池，按哈希定位槽位，冲突时覆盖旧值</li>
+ * </ul>
+ * 可在多个线程间共享：数组槽位的并发写入只会造成个别未命中，不影响正确性。
+ */
+public final class StringDeduplicator {
+
+    /**
+     * 默认池大小（槽位数）
+     */
+    public static final int DEFAULT_POOL_SIZE = 4096;
+
+    private final String[] pool;
+    private final int mask;
+    private volatile SharedCache shared = new SharedCache(null, new String[64]);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public StringDeduplicator() {
+        this(DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * @param poolSize 池大小，向上取整为2的幂
+     */
+    public StringDeduplicator(int poolSize) {
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("池大小必须大于0: " + poolSize);
+        }
+        int size = Integer.highestOneBit(poolSize);
+        if (size < poolSize) {
+            size <<= 1;
+        }
+        this.pool = new String[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * 查找共享字符串表下标对应的已缓存实例
+     *
+     * @param table 共享字符串表，按引用区分
+     * @param index 共享字符串表下标
+     * @return 已缓存的字符串，未缓存或缓存属于另一张表时返回 null（计为一次未命中）
+     */
+    public String getShared(Object table, int index) {
+        SharedCache current = shared;
+        String value = current.table == table && index < current.values.length ? current.values[index] : null;
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return value;
+    }
+
+    /**
+     * 缓存共享字符串表下标对应的字符串，表与当前缓存的不是同一张时先清空
+     *
+     * @param table 共享字符串表，按引用区分
+     * @param index 共享字符串表下标
+     * @param value 字符串值
+     * @return 传入的字符串
+     */
+    public String putShared(Object table, int index, String value) {
+        SharedCache current = shared;
+        if (current.table != table) {
+            current = new SharedCache(table, new String[Math.max(index + 1, 64)]);
+            shared = current;
+        } else if (index >= current.values.length) {
+            current = new SharedCache(table, Arrays.copyOf(current.values, Math.max(index + 1, current.values.length << 1)));
+            shared = current;
+        }
+        current.values[index] = value;
+        return value;
+    }
+
+    /**
+     * 返回与给定值相等的共享实例
+     *
+     * @param value 字符串值
+     * @return 池中相等的实例，没有时放入池中并返回自身
+     */
+    public String intern(String value) {
+        if (value == null || value.isEmpty()) {
+            return value;
+        }
+        int h = value.hashCode();
+        int slot = (h ^ (h >>> 16)) & mask;
+        String cached = pool[slot];
+        if (value.equals(cached)) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        pool[slot] = value;
+        return value;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return 命中率，没有请求时返回 0
+     */
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * 共享字符串表与其下标缓存，整体替换，保证读到的数组总是属于同一张表
+     */
+    private static final class SharedCache {
+        private final Object table;
+        private final String[] values;
+
+        SharedCache(Object table, String[] values) {
+            this.table = table;
+            this.values = values;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StringDeduplicator{hits=%d, misses=%d, hitRatio=%.2f%%}",
+                getHits(), getMisses(), getHitRatio() * 100);
+    }
+}
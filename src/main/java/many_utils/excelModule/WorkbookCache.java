@@ -0,0 +1,312 @@
+package many_utils.excelModule;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按文件身份缓存解析结果的 LRU 缓存
+ * <p>
+ * 缓存键为 (路径, 文件标识, 大小, 修改时间, 工作表)，文件被修改或替换后键不再匹配，旧条目自动失效。
+ * 按估算的内存占用控制总量，超出预算时淘汰最久未使用的条目。
+ * 缓存的数据为只读列表，多个调用方共享同一份结果。
+ *
+ * <pre>
+ * WorkbookCache cache = new WorkbookCache(256L * 1024 * 1024);
+ * List&lt;List&lt;String&gt;&gt; data = cache.readExcelWithMerge("/data/template.xlsx", 0);
+ * </pre>
+ */
+public class WorkbookCache {
+
+    /**
+     * 默认内存预算：256MB
+     */
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    // readAllSheets 结果使用的工作表标记
+    private static final int ALL_SHEETS = -1;
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long invalidationCount;
+
+    public WorkbookCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param maxBytes 内存预算（字节），按估算的结果占用计算
+     */
+    public WorkbookCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("内存预算必须大于0: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 读取 Excel 文件的指定工作表，文件未变化时直接返回缓存结果
+     *
+     * @param filePath Excel 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @return 只读的字符串数据列表
+     * @throws IOException 文件读取异常
+     */
+    @SuppressWarnings("unchecked")
+    public List<List<String>> readExcelWithMerge(String filePath, int sheetIndex) throws IOException {
+        if (sheetIndex < 0) {
+            throw new IllegalArgumentException("工作表索引越界: " + sheetIndex);
+        }
+        return (List<List<String>>) load(filePath, sheetIndex);
+    }
+
+    /**
+     * 读取 Excel 文件的所有工作表，文件未变化时直接返回缓存结果
+     *
+     * @param filePath Excel 文件路径
+     * @return 只读的所有工作表数据，按工作表顺序排列
+     * @throws IOException 文件读取异常
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, List<List<String>>> readAllSheets(String filePath) throws IOException {
+        return (Map<String, List<List<String>>>) load(filePath, ALL_SHEETS);
+    }
+
+    private Object load(String filePath, int sheet) throws IOException {
+        Path path = Paths.get(filePath).toRealPath();
+        Key key = Key.of(path, sheet);
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hitCount++;
+                return entry.value;
+            }
+            missCount++;
+            invalidateStale(key);
+        }
+
+        // 解析在锁外进行，不阻塞其他文件的读取
+        Object value;
+        long bytes;
+        if (sheet == ALL_SHEETS) {
+            Map<String, List<List<String>>> allSheetsData = new LinkedHashMap<>();
+            bytes = 0;
+            for (Map.Entry<String, List<List<String>>> e : ExcelPOIReaderUtil.readAllSheets(filePath).entrySet()) {
+                allSheetsData.put(e.getKey(), readOnly(e.getValue()));
+                bytes += estimateBytes(e.getValue());
+            }
+            value = Collections.unmodifiableMap(allSheetsData);
+        } else {
+            List<List<String>> rows = ExcelPOIReaderUtil.readExcelWithMerge(filePath, sheet);
+            bytes = estimateBytes(rows);
+            value = readOnly(rows);
+        }
+
+        // 解析期间文件被修改时不缓存
+        if (!key.equals(Key.of(path, sheet))) {
+            return value;
+        }
+
+        synchronized (this) {
+            if (bytes <= maxBytes) {
+                Entry previous = entries.put(key, new Entry(value, bytes));
+                if (previous != null) {
+                    currentBytes -= previous.bytes;
+                }
+                currentBytes += bytes;
+                evict();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 移除同一文件同一工作表的旧版本条目
+     */
+    private void invalidateStale(Key key) {
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> e = it.next();
+            if (e.getKey().isStaleVersionOf(key)) {
+                currentBytes -= e.getValue().bytes;
+                invalidationCount++;
+                it.remove();
+            }
+        }
+    }
+
+    private void evict() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            currentBytes -= it.next().bytes;
+            evictionCount++;
+            it.remove();
+        }
+    }
+
+    /**
+     * 移除某个文件的所有缓存条目
+     *
+     * @param filePath Excel 文件路径
+     */
+    public synchronized void invalidate(String filePath) {
+        Path path;
+        try {
+            path = Paths.get(filePath).toRealPath();
+        } catch (IOException e) {
+            // 文件已删除时按绝对路径匹配
+            path = Paths.get(filePath).toAbsolutePath().normalize();
+        }
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> e = it.next();
+            if (e.getKey().path.equals(path.toString())) {
+                currentBytes -= e.getValue().bytes;
+                invalidationCount++;
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized long getInvalidationCount() {
+        return invalidationCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "WorkbookCache{entries=" + entries.size() + ", bytes=" + currentBytes + "/" + maxBytes
+                + ", hits=" + hitCount + ", misses=" + missCount
+                + ", evictions=" + evictionCount + ", invalidations=" + invalidationCount + "}";
+    }
+
+    private static List<List<String>> readOnly(List<List<String>> rows) {
+        List<List<String>> result = new ArrayList<>(rows.size());
+        for (List<String> row : rows) {
+            result.add(Collections.unmodifiableList(row));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * 估算结果占用的堆内存，共享的字符串实例只计算一次
+     */
+    static long estimateBytes(List<List<String>> rows) {
+        Set<String> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        // 外层列表：对象头 + 数组
+        long bytes = 40 + 4L * rows.size();
+        for (List<String> row : rows) {
+            bytes += 40 + 4L * row.size();
+            for (String value : row) {
+                if (value != null && seen.add(value)) {
+                    // String 对象 + 字符数组（按 UTF-16 上限估算）
+                    bytes += 40 + 2L * value.length();
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final long bytes;
+
+        Entry(Object value, long bytes) {
+            this.value = value;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * 文件身份：路径 + 文件标识（如 inode）+ 大小 + 修改时间，以及工作表
+     */
+    private static final class Key {
+        private final String path;
+        private final Object fileKey;
+        private final long size;
+        private final long lastModified;
+        private final int sheet;
+
+        private Key(String path, Object fileKey, long size, long lastModified, int sheet) {
+            this.path = path;
+            this.fileKey = fileKey;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.sheet = sheet;
+        }
+
+        static Key of(Path path, int sheet) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return new Key(path.toString(), attributes.fileKey(), attributes.size(),
+                    attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS), sheet);
+        }
+
+        boolean isStaleVersionOf(Key other) {
+            return path.equals(other.path) && sheet == other.sheet && !equals(other);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return size == key.size && lastModified == key.lastModified && sheet == key.sheet
+                    && path.equals(key.path) && Objects.equals(fileKey, key.fileKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, fileKey, size, lastModified, sheet);
+        }
+    }
+}
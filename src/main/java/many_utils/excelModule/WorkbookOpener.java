@@ -0,0 +1,289 @@
+package many_utils.excelModule;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.BoundedInputStream;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.util.ZipEntrySource;
+import org.apache.poi.openxml4j.util.ZipSecureFile;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Enumeration;
+
+/**
+ * 打开工作簿：不经过 InputStream，避免 POI 把整个 zip 包解压到内存
+ * <p>
+ * 文件：xlsx 用随机访问的 zip 文件按需读取部件，xls 以只读方式内存映射 OLE2 文件系统。
+ * 内存数据：xlsx 在缓冲区上按 zip 目录随机访问，不复制也不预先解压；xls 的 OLE2 文件系统只能从流构建，复制一次。
+ * 打开失败时已打开的容器随即关闭；读取结束后用 {@link #close(Workbook)} 关闭。
+ */
+final class WorkbookOpener {
+
+    /**
+     * 与 POI 的 ZipSecureFile 相同：小于该大小的部件不检查压缩率
+     */
+    private static final long GRACE_ENTRY_SIZE = 100 * 1024;
+
+    private WorkbookOpener() {
+    }
+
+    /**
+     * 按扩展名从文件打开工作簿，分别记录打开容器和解析工作簿的耗时
+     */
+    static Workbook open(File file, ReadMetrics.Recorder recorder) throws IOException {
+        String name = file.getName();
+        if (name.endsWith(".xlsx")) {
+            OPCPackage pkg;
+            try {
+                pkg = OPCPackage.open(file, PackageAccess.READ);
+            } catch (InvalidFormatException e) {
+                throw new IOException("无法打开 xlsx 文件: " + file, e);
+            }
+            return openXlsx(pkg, recorder);
+        } else if (name.endsWith(".xls")) {
+            return openXls(new POIFSFileSystem(file, true), recorder);
+        }
+        throw new IllegalArgumentException("不支持的文件格式");
+    }
+
+    /**
+     * 从文件通道打开工作簿：只读映射整个文件后按内存数据打开，不关闭通道
+     */
+    static Workbook open(FileChannel channel, ReadMetrics.Recorder recorder) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("文件过大，无法映射: " + size);
+        }
+        return open(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), recorder);
+    }
+
+    /**
+     * 从内存数据打开工作簿，按文件头识别格式；读取 position 到 limit 之间的数据，不改变缓冲区的位置
+     */
+    static Workbook open(ByteBuffer data, ReadMetrics.Recorder recorder) throws IOException {
+        ByteBuffer buffer = data.slice();
+        byte[] header = new byte[Math.min(8, buffer.remaining())];
+        buffer.duplicate().get(header);
+
+        FileMagic magic = FileMagic.valueOf(header);
+        if (magic == FileMagic.OOXML) {
+            ZipEntrySource source = new BufferZipEntrySource(new ZipFile(new BufferChannel(buffer), "<memory>", "UTF8", true));
+            OPCPackage pkg;
+            try {
+                pkg = OPCPackage.open(source);
+            } catch (InvalidFormatException | RuntimeException e) {
+                source.close();
+                throw new IOException("无法打开 xlsx 数据", e);
+            }
+            return openXlsx(pkg, recorder);
+        } else if (magic == FileMagic.OLE2) {
+            return openXls(new POIFSFileSystem(new BufferInputStream(buffer)), recorder);
+        }
+        throw new IllegalArgumentException("不支持的文件格式");
+    }
+
+    /**
+     * 关闭工作簿及其容器。xlsx 包只读打开，直接放弃而不保存，同时关闭底层的 zip 文件
+     */
+    static void close(Workbook workbook) throws IOException {
+        if (workbook instanceof XSSFWorkbook) {
+            ((XSSFWorkbook) workbook).getPackage().revert();
+        } else {
+            workbook.close();
+        }
+    }
+
+    private static Workbook openXlsx(OPCPackage pkg, ReadMetrics.Recorder recorder) throws IOException {
+        if (recorder != null) {
+            recorder.phase(ReadMetrics.Phase.OPEN);
+        }
+        try {
+            return new XSSFWorkbook(pkg);
+        } catch (IOException | RuntimeException e) {
+            pkg.revert();
+            throw e;
+        }
+    }
+
+    private static Workbook openXls(POIFSFileSystem fs, ReadMetrics.Recorder recorder) throws IOException {
+        if (recorder != null) {
+            recorder.phase(ReadMetrics.Phase.OPEN);
+        }
+        try {
+            return new HSSFWorkbook(fs);
+        } catch (IOException | RuntimeException e) {
+            fs.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 内存中的 zip 包，部件按 zip 目录随机读取，读取时才解压。
+     * 与 ZipSecureFile 一样按目录中的大小检查部件大小和压缩率，读取量不超过目录中声明的大小
+     */
+    private static final class BufferZipEntrySource implements ZipEntrySource {
+        private final ZipFile zip;
+        private boolean closed;
+
+        BufferZipEntrySource(ZipFile zip) {
+            this.zip = zip;
+        }
+
+        @Override
+        public Enumeration<? extends ZipArchiveEntry> getEntries() {
+            return zip.getEntries();
+        }
+
+        @Override
+        public ZipArchiveEntry getEntry(String path) {
+            return zip.getEntry(path);
+        }
+
+        @Override
+        public InputStream getInputStream(ZipArchiveEntry entry) throws IOException {
+            long size = entry.getSize();
+            if (size < 0 || size > ZipSecureFile.getMaxEntrySize()) {
+                throw new IOException("zip 部件大小异常: " + entry.getName() + ", " + size);
+            }
+            if (size > GRACE_ENTRY_SIZE && (double) entry.getCompressedSize() / size < ZipSecureFile.getMinInflateRatio()) {
+                throw new IOException("zip 部件压缩率异常，可能是 zip 炸弹: " + entry.getName());
+            }
+            return new BoundedInputStream(zip.getInputStream(entry), size);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                zip.close();
+            }
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+    }
+
+    /**
+     * 缓冲区上的只读通道，供 zip 文件随机访问
+     */
+    private static final class BufferChannel implements SeekableByteChannel {
+        private final ByteBuffer buffer;
+        private boolean open = true;
+
+        BufferChannel(ByteBuffer buffer) {
+            this.buffer = buffer.duplicate();
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            ensureOpen();
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(dst.remaining(), buffer.remaining());
+            ByteBuffer chunk = buffer.duplicate();
+            chunk.limit(chunk.position() + n);
+            dst.put(chunk);
+            buffer.position(buffer.position() + n);
+            return n;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            ensureOpen();
+            return buffer.position();
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) throws IOException {
+            ensureOpen();
+            if (newPosition < 0) {
+                throw new IllegalArgumentException("位置不能为负数: " + newPosition);
+            }
+            buffer.position((int) Math.min(newPosition, buffer.limit()));
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            ensureOpen();
+            return buffer.limit();
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+
+        private void ensureOpen() throws ClosedChannelException {
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+        }
+    }
+
+    /**
+     * 缓冲区上的输入流，xls 构建 OLE2 文件系统时使用
+     */
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer.duplicate();
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
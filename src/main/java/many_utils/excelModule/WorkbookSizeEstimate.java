@@ -0,0 +1,293 @@
+package many_utils.excelModule;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.ZipPackagePart;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * 读取前对工作簿大小的估算，用于在构建工作簿和流式读取之间选择
+ * <p>
+ * xlsx 只读取 zip 目录中各部件的压缩前后大小，以及工作表开头的 {@code <dimension>} 元素，不解析单元格；
+ * xls 只根据文件大小估算。系数来自实测的常驻内存（POI 4.1.2，64 位压缩指针）：
+ * XSSF 工作簿约为 XML 原文的 14~18 倍，HSSF 工作簿约为文件大小的 7~9 倍，结果中每个单元格约 60 字节。
+ */
+public final class WorkbookSizeEstimate {
+
+    /**
+     * XSSF 对象模型相对 XML 原文的内存倍数（含加载时的临时对象）
+     */
+    static final int XSSF_BYTES_PER_XML_BYTE = 20;
+
+    /**
+     * HSSF 对象模型相对文件大小的内存倍数
+     */
+    static final int HSSF_BYTES_PER_FILE_BYTE = 10;
+
+    /**
+     * 结果 List&lt;List&lt;String&gt;&gt; 中每个单元格的内存
+     */
+    static final int RESULT_BYTES_PER_CELL = 64;
+
+    /**
+     * 没有可用的 dimension 时，按工作表 XML 每个单元格约 40 字节、xls 每个单元格约 20 字节估算单元格数
+     */
+    private static final int XML_BYTES_PER_CELL = 40;
+    private static final int XLS_BYTES_PER_CELL = 20;
+
+    /**
+     * 不打开 xlsx 时按 XML 原文通常压缩到约十分之一换算
+     */
+    private static final int TYPICAL_XLSX_COMPRESSION = 10;
+
+    /**
+     * 每个文件字节最多需要的内存：xlsx 的压缩率受 POI 的 ZipSecureFile 限制（默认最多 100 倍），
+     * 解压后每字节需要对象模型 + 结果约 22 字节；xls 为对象模型 + 结果约 14 字节
+     */
+    private static final long MAX_XLSX_BYTES_PER_FILE_BYTE = 100 * (XSSF_BYTES_PER_XML_BYTE + 2);
+    private static final long MAX_XLS_BYTES_PER_FILE_BYTE = HSSF_BYTES_PER_FILE_BYTE + RESULT_BYTES_PER_CELL / XLS_BYTES_PER_CELL + 1;
+
+    private final long fileBytes;
+    private final long sheetCompressedBytes;
+    private final long sheetUncompressedBytes;
+    private final long packageUncompressedBytes;
+    private final int dimensionRows;
+    private final int dimensionColumns;
+    private final long estimatedCells;
+    private final long estimatedDomBytes;
+    private final long estimatedResultBytes;
+
+    private WorkbookSizeEstimate(long fileBytes, long sheetCompressedBytes, long sheetUncompressedBytes,
+                                 long packageUncompressedBytes, int dimensionRows, int dimensionColumns,
+                                 long estimatedCells, long estimatedDomBytes) {
+        this.fileBytes = fileBytes;
+        this.sheetCompressedBytes = sheetCompressedBytes;
+        this.sheetUncompressedBytes = sheetUncompressedBytes;
+        this.packageUncompressedBytes = packageUncompressedBytes;
+        this.dimensionRows = dimensionRows;
+        this.dimensionColumns = dimensionColumns;
+        this.estimatedCells = estimatedCells;
+        this.estimatedDomBytes = estimatedDomBytes;
+        this.estimatedResultBytes = estimatedCells * RESULT_BYTES_PER_CELL;
+    }
+
+    /**
+     * 估算读取指定工作表所需的内存
+     *
+     * @param filePath   Excel 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @return 估算结果
+     * @throws IOException 文件读取异常
+     */
+    public static WorkbookSizeEstimate of(String filePath, int sheetIndex) throws IOException {
+        long fileBytes = new File(filePath).length();
+        if (filePath.endsWith(".xlsx")) {
+            return ofXlsx(filePath, sheetIndex, fileBytes);
+        } else if (filePath.endsWith(".xls")) {
+            return ofXls(fileBytes);
+        }
+        throw new IllegalArgumentException("不支持的文件格式");
+    }
+
+    /**
+     * 只根据文件大小估算，不打开文件：xls 与 {@link #of(String, int)} 相同，
+     * xlsx 按典型的压缩率换算 XML 原文，用于 {@link #fitsWithinBudget(String, long)} 已判定为小文件的情况
+     *
+     * @param filePath Excel 文件路径
+     * @return 估算结果
+     */
+    static WorkbookSizeEstimate ofFileSize(String filePath) {
+        long fileBytes = new File(filePath).length();
+        if (filePath.endsWith(".xlsx")) {
+            long xmlBytes = fileBytes * TYPICAL_XLSX_COMPRESSION;
+            return new WorkbookSizeEstimate(fileBytes, -1, -1, -1, -1, -1, xmlBytes / XML_BYTES_PER_CELL,
+                    xmlBytes * XSSF_BYTES_PER_XML_BYTE);
+        }
+        return ofXls(fileBytes);
+    }
+
+    private static WorkbookSizeEstimate ofXls(long fileBytes) {
+        long cells = fileBytes / XLS_BYTES_PER_CELL;
+        return new WorkbookSizeEstimate(fileBytes, -1, -1, -1, -1, -1, cells, fileBytes * HSSF_BYTES_PER_FILE_BYTE);
+    }
+
+    /**
+     * 只看文件大小判断是否一定在预算之内，小文件不必打开估算
+     *
+     * @param filePath Excel 文件路径
+     * @param budget   堆预算（字节）
+     * @return 最坏情况下所需内存也不超过预算时返回 true
+     */
+    static boolean fitsWithinBudget(String filePath, long budget) {
+        long fileBytes = new File(filePath).length();
+        long perByte = filePath.endsWith(".xlsx") ? MAX_XLSX_BYTES_PER_FILE_BYTE : MAX_XLS_BYTES_PER_FILE_BYTE;
+        return fileBytes <= budget / perByte;
+    }
+
+    private static WorkbookSizeEstimate ofXlsx(String filePath, int sheetIndex, long fileBytes) throws IOException {
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(filePath, PackageAccess.READ);
+        } catch (InvalidFormatException e) {
+            throw new IOException("无法打开 xlsx 文件: " + filePath, e);
+        }
+
+        try {
+            // 工作簿从文件按需读取部件，不保留解压后的原文，只有 XML 部件解析成的对象常驻内存
+            long packageBytes = 0;
+            long xmlBytes = 0;
+            for (PackagePart part : pkg.getParts()) {
+                long size = Math.max(part.getSize(), 0);
+                packageBytes += size;
+                if (part.getContentType().endsWith("xml")) {
+                    xmlBytes += size;
+                }
+            }
+
+            PackagePart sheetPart = sheetPart(pkg, sheetIndex);
+            long compressed = sheetPart instanceof ZipPackagePart
+                    ? ((ZipPackagePart) sheetPart).getZipArchive().getCompressedSize() : -1;
+            long uncompressed = sheetPart.getSize();
+
+            CellRangeAddress dimension = readDimension(sheetPart);
+            int rows = dimension == null ? -1 : dimension.getLastRow() - dimension.getFirstRow() + 1;
+            int columns = dimension == null ? -1 : dimension.getLastColumn() - dimension.getFirstColumn() + 1;
+            // 有的生成工具把 dimension 固定写成 A1，取两种估算中较大的一个
+            long cells = Math.max(dimension == null ? 0 : (long) rows * columns, Math.max(uncompressed, 0) / XML_BYTES_PER_CELL);
+
+            return new WorkbookSizeEstimate(fileBytes, compressed, uncompressed, packageBytes, rows, columns, cells,
+                    xmlBytes * XSSF_BYTES_PER_XML_BYTE);
+        } catch (InvalidFormatException e) {
+            throw new IOException("解析 xlsx 工作簿失败", e);
+        } finally {
+            pkg.revert();
+        }
+    }
+
+    private static PackagePart sheetPart(OPCPackage pkg, int sheetIndex) throws IOException {
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            for (int i = 0; sheets.hasNext(); i++) {
+                InputStream in = sheets.next();
+                in.close();
+                if (i == sheetIndex) {
+                    return ((XSSFReader.SheetIterator) sheets).getSheetPart();
+                }
+            }
+        } catch (OpenXML4JException e) {
+            throw new IOException("解析 xlsx 工作簿失败", e);
+        }
+        throw new IllegalArgumentException("工作表索引越界: " + sheetIndex);
+    }
+
+    /**
+     * 读取工作表开头的 dimension 元素，遇到 sheetData 即停止；没有或无法解析时返回 null
+     */
+    private static CellRangeAddress readDimension(PackagePart sheetPart) throws IOException {
+        try (InputStream in = sheetPart.getInputStream()) {
+            XMLStreamReader reader = XMLHelper.newXMLInputFactory().createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+                    String name = reader.getLocalName();
+                    if ("dimension".equals(name)) {
+                        String ref = reader.getAttributeValue(null, "ref");
+                        return ref == null ? null : CellRangeAddress.valueOf(ref);
+                    }
+                    if ("sheetData".equals(name)) {
+                        return null;
+                    }
+                }
+                return null;
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public long getFileBytes() {
+        return fileBytes;
+    }
+
+    /**
+     * @return 工作表部件压缩后的字节数，xls 返回 -1
+     */
+    public long getSheetCompressedBytes() {
+        return sheetCompressedBytes;
+    }
+
+    /**
+     * @return 工作表部件解压后的字节数，xls 返回 -1
+     */
+    public long getSheetUncompressedBytes() {
+        return sheetUncompressedBytes;
+    }
+
+    /**
+     * @return 所有部件解压后的字节数，xls 返回 -1
+     */
+    public long getPackageUncompressedBytes() {
+        return packageUncompressedBytes;
+    }
+
+    /**
+     * @return dimension 声明的行数，没有时返回 -1
+     */
+    public int getDimensionRows() {
+        return dimensionRows;
+    }
+
+    /**
+     * @return dimension 声明的列数，没有时返回 -1
+     */
+    public int getDimensionColumns() {
+        return dimensionColumns;
+    }
+
+    public long getEstimatedCells() {
+        return estimatedCells;
+    }
+
+    /**
+     * @return 构建工作簿所需的内存（不含结果）
+     */
+    public long getEstimatedDomBytes() {
+        return estimatedDomBytes;
+    }
+
+    /**
+     * @return 结果数据所需的内存，两种读取方式都需要
+     */
+    public long getEstimatedResultBytes() {
+        return estimatedResultBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "WorkbookSizeEstimate{file=" + fileBytes
+                + (sheetUncompressedBytes >= 0 ? ", sheet=" + sheetCompressedBytes + "->" + sheetUncompressedBytes : "")
+                + (packageUncompressedBytes >= 0 ? ", package=" + packageUncompressedBytes : "")
+                + (dimensionRows >= 0 ? ", dimension=" + dimensionRows + "x" + dimensionColumns : "")
+                + ", cells~" + estimatedCells
+                + ", dom~" + estimatedDomBytes / (1024 * 1024) + "MB"
+                + ", result~" + estimatedResultBytes / (1024 * 1024) + "MB}";
+    }
+}
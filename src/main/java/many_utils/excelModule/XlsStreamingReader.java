@@ -0,0 +1,597 @@
+package many_utils.excelModule;
+
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BlankRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.ExtendedFormatRecord;
+import org.apache.poi.hssf.record.FilePassRecord;
+import org.apache.poi.hssf.record.FormatRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.MergeCellsRecord;
+import org.apache.poi.hssf.record.MulBlankRecord;
+import org.apache.poi.hssf.record.MulRKRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.RKRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.DocumentInputStream;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.ExcelNumberFormat;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于 HSSF 事件模型（HSSFEventFactory + AbortableHSSFListener）的 xls 流式读取器
+ * <p>
+ * 与 {@link ExcelPOIReaderUtil#readSheetWithMerge} 输出一致，但不构建 HSSFWorkbook，
+ * 内存占用只与共享字符串表和合并区域数量相关，与行数无关。
+ * <p>
+ * 与 xlsx 相同，{@code MergeCellsRecord} 位于工作表记录流的末尾，因此分两遍读取：
+ * 第一遍读取工作簿全局记录（共享字符串、数值格式、1904 日期标记）并收集目标工作表的合并区域，
+ * 读到目标工作表结束即停止；第二遍按 {@code BoundSheetRecord} 记录的偏移直接定位到目标工作表，
+ * 逐行输出数据并填充合并单元格。
+ * <p>
+ * 公式单元格取缓存结果：数值结果输出 {@code String.valueOf(double)}，字符串结果取随后的 {@code StringRecord}。
+ * 布尔和错误结果分别输出 "true"/"false" 和空字符串，与构建工作簿读取的结果相同。
+ */
+public class XlsStreamingReader {
+
+    // FormulaRecord.getCachedResultType 返回的结果类型码，取值同 CellType 的旧整数编码（getCode 已废弃）
+    private static final int CACHED_STRING = 1;
+    private static final int CACHED_BOOLEAN = 4;
+    private static final int CACHED_ERROR = 5;
+
+    /**
+     * 流式读取 xls 文件的指定工作表
+     *
+     * @param filePath   xls 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @param handler    行回调
+     * @throws IOException 文件读取或解析异常
+     */
+    public static void read(String filePath, int sheetIndex, RowHandler handler) throws IOException {
+        read(filePath, sheetIndex, handler, new StringDeduplicator());
+    }
+
+    /**
+     * 流式读取 xls 文件的指定工作表，重复的字符串共享同一实例
+     *
+     * @param filePath     xls 文件路径
+     * @param sheetIndex   工作表索引（从0开始）
+     * @param handler      行回调
+     * @param deduplicator 字符串去重器
+     * @throws IOException 文件读取或解析异常
+     */
+    public static void read(String filePath, int sheetIndex, RowHandler handler, StringDeduplicator deduplicator) throws IOException {
+        // 只读方式打开，按需读取文件块，不把整个文件载入内存
+        try (POIFSFileSystem fs = new POIFSFileSystem(new File(filePath), true)) {
+            read(fs, sheetIndex, handler, deduplicator);
+        }
+    }
+
+    /**
+     * 流式读取已打开的 POIFS 文件系统中的指定工作表，调用方负责关闭
+     *
+     * @param fs           已打开的 POIFS 文件系统
+     * @param sheetIndex   工作表索引（从0开始）
+     * @param handler      行回调
+     * @param deduplicator 字符串去重器
+     * @throws IOException 解析异常
+     */
+    public static void read(POIFSFileSystem fs, int sheetIndex, RowHandler handler, StringDeduplicator deduplicator) throws IOException {
+        if (sheetIndex < 0) {
+            throw new IllegalArgumentException("工作表索引越界: " + sheetIndex);
+        }
+
+        // 第一遍：工作簿全局记录 + 目标工作表的合并区域
+        WorkbookScanner scanner = new WorkbookScanner(sheetIndex);
+        process(fs, scanner);
+        if (!scanner.found) {
+            throw new IllegalArgumentException("工作表索引越界: " + sheetIndex);
+        }
+        if (!scanner.ordered) {
+            // 非 Excel 生成的文件可能不按行号顺序写记录，无法逐行输出，改为构建工作簿读取
+            readWithWorkbook(fs, sheetIndex, handler, deduplicator);
+            return;
+        }
+
+        // 第二遍：逐行输出
+        MergedRegionIndex mergedIndex = MergedRegionIndex.of(scanner.regions);
+        int bofPosition = scanner.bofPosition();
+        if (bofPosition >= 0) {
+            SheetRecordHandler sheetHandler = new SheetRecordHandler(scanner, 0, mergedIndex, handler, deduplicator);
+            try (DocumentInputStream in = fs.createDocumentInputStream(HSSFWorkbook.getWorkbookDirEntryName(fs.getRoot()))) {
+                if (in.skip(bofPosition) == bofPosition) {
+                    process(in, sheetHandler);
+                }
+            } catch (RuntimeException e) {
+                // 偏移不可靠（记录解析失败），且尚未输出任何行时改为从头读取
+                if (sheetHandler.started) {
+                    throw e;
+                }
+            }
+            if (sheetHandler.started) {
+                return;
+            }
+        }
+        process(fs, new SheetRecordHandler(scanner, sheetIndex, mergedIndex, handler, deduplicator));
+    }
+
+    /**
+     * 依次流式读取 xls 文件的所有工作表，只打开一次文件
+     * <p>
+     * 每个工作表仍各自扫描一遍工作簿全局记录（共享字符串、数值格式）
+     *
+     * @param filePath     xls 文件路径
+     * @param handler      工作表回调
+     * @param deduplicator 字符串去重器
+     * @throws IOException 文件读取或解析异常
+     */
+    static void readSheets(String filePath, SheetHandler handler, StringDeduplicator deduplicator) throws IOException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(new File(filePath), true)) {
+            List<String> names = getSheetNames(fs);
+            for (int i = 0; i < names.size(); i++) {
+                read(fs, i, handler.startSheet(i, names.get(i)), deduplicator);
+                handler.endSheet(i);
+            }
+        }
+    }
+
+    /**
+     * 读取 xls 文件的工作表名称，只读取工作簿全局记录
+     *
+     * @param filePath xls 文件路径
+     * @return 按工作表顺序排列的名称
+     * @throws IOException 文件读取异常
+     */
+    public static List<String> getSheetNames(String filePath) throws IOException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(new File(filePath), true)) {
+            return getSheetNames(fs);
+        }
+    }
+
+    private static List<String> getSheetNames(POIFSFileSystem fs) throws IOException {
+        List<String> names = new ArrayList<>();
+        process(fs, new AbortableHSSFListener() {
+            @Override
+            public short abortableProcessRecord(Record record) {
+                if (record.getSid() == BoundSheetRecord.sid) {
+                    names.add(((BoundSheetRecord) record).getSheetname());
+                }
+                // 全局子流结束即停止
+                return record.getSid() == EOFRecord.sid ? (short) 1 : 0;
+            }
+        });
+        return names;
+    }
+
+    private static void readWithWorkbook(POIFSFileSystem fs, int sheetIndex, RowHandler handler,
+                                         StringDeduplicator deduplicator) throws IOException {
+        try (HSSFWorkbook workbook = new HSSFWorkbook(fs.getRoot(), true)) {
+            Sheet sheet = workbook.getSheetAt(sheetIndex);
+            List<List<String>> rows = ExcelPOIReaderUtil.readSheetWithMerge(sheet, deduplicator);
+            for (int i = 0; i < rows.size(); i++) {
+                Row row = sheet.getRow(sheet.getFirstRowNum() + i);
+                handler.handleRow(sheet.getFirstRowNum() + i, row == null ? 0 : Math.max(row.getFirstCellNum(), 0), rows.get(i));
+            }
+        }
+    }
+
+    private static void process(POIFSFileSystem fs, AbortableHSSFListener listener) throws IOException {
+        HSSFRequest request = new HSSFRequest();
+        request.addListenerForAllRecords(listener);
+        try {
+            new HSSFEventFactory().abortableProcessWorkbookEvents(request, fs);
+        } catch (HSSFUserException e) {
+            throw new IOException("解析 xls 工作表失败", e);
+        }
+    }
+
+    private static void process(DocumentInputStream in, AbortableHSSFListener listener) throws IOException {
+        HSSFRequest request = new HSSFRequest();
+        request.addListenerForAllRecords(listener);
+        try {
+            new HSSFEventFactory().abortableProcessEvents(request, in);
+        } catch (HSSFUserException e) {
+            throw new IOException("解析 xls 工作表失败", e);
+        }
+    }
+
+    /**
+     * 跟踪记录流中的子流嵌套（工作表中嵌入的图表有自己的 BOF/EOF），定位目标工作表
+     */
+    private abstract static class SheetLocator extends AbortableHSSFListener {
+        private final int sheetIndex;
+        private int depth;
+        // 工作簿全局子流之后的顶层子流序号，以及其中工作表的序号
+        private int substreamIndex = -1;
+        private int worksheetIndex = -1;
+        boolean inTarget;
+        boolean found;
+        int targetSubstream = -1;
+
+        SheetLocator(int sheetIndex) {
+            this.sheetIndex = sheetIndex;
+        }
+
+        @Override
+        public short abortableProcessRecord(Record record) throws HSSFUserException {
+            if (record.getSid() == BOFRecord.sid) {
+                if (depth == 0) {
+                    int type = ((BOFRecord) record).getType();
+                    if (type != BOFRecord.TYPE_WORKBOOK) {
+                        substreamIndex++;
+                        if (type == BOFRecord.TYPE_WORKSHEET && ++worksheetIndex == sheetIndex) {
+                            inTarget = true;
+                            found = true;
+                            targetSubstream = substreamIndex;
+                        }
+                    }
+                }
+                depth++;
+                return 0;
+            }
+            if (record.getSid() == EOFRecord.sid) {
+                depth--;
+                if (depth == 0 && inTarget) {
+                    inTarget = false;
+                    endSheet();
+                    // 目标工作表读取完毕，停止解析
+                    return 1;
+                }
+                return 0;
+            }
+            if (depth == 0 || depth == 1) {
+                processRecord(record, inTarget && depth == 1);
+            }
+            return 0;
+        }
+
+        /**
+         * @param inSheet 是否为目标工作表自身（不含嵌入图表）的记录
+         */
+        abstract void processRecord(Record record, boolean inSheet);
+
+        void endSheet() {
+        }
+    }
+
+    /**
+     * 第一遍解析：读取工作簿全局记录，收集目标工作表的合并区域并检查记录是否按行号顺序排列
+     */
+    private static class WorkbookScanner extends SheetLocator {
+        private SSTRecord sst;
+        private boolean date1904;
+        private boolean encrypted;
+        private final List<BoundSheetRecord> boundSheets = new ArrayList<>();
+        private final Map<Integer, String> customFormats = new HashMap<>();
+        private short[] xfFormats = new short[64];
+        private int xfCount;
+
+        private final List<CellRangeAddress> regions = new ArrayList<>();
+        private boolean ordered = true;
+        private int lastRowRecord = -1;
+        private int lastCellRow = -1;
+
+        WorkbookScanner(int sheetIndex) {
+            super(sheetIndex);
+        }
+
+        @Override
+        void processRecord(Record record, boolean inSheet) {
+            switch (record.getSid()) {
+                case SSTRecord.sid:
+                    sst = (SSTRecord) record;
+                    break;
+                case DateWindow1904Record.sid:
+                    date1904 = ((DateWindow1904Record) record).getWindowing() == 1;
+                    break;
+                case FilePassRecord.sid:
+                    encrypted = true;
+                    break;
+                case BoundSheetRecord.sid:
+                    boundSheets.add((BoundSheetRecord) record);
+                    break;
+                case FormatRecord.sid:
+                    FormatRecord format = (FormatRecord) record;
+                    customFormats.put(format.getIndexCode(), format.getFormatString());
+                    break;
+                case ExtendedFormatRecord.sid:
+                    if (xfCount == xfFormats.length) {
+                        xfFormats = Arrays.copyOf(xfFormats, xfCount << 1);
+                    }
+                    xfFormats[xfCount++] = ((ExtendedFormatRecord) record).getFormatIndex();
+                    break;
+                case MergeCellsRecord.sid:
+                    if (inSheet) {
+                        MergeCellsRecord merge = (MergeCellsRecord) record;
+                        for (int i = 0; i < merge.getNumAreas(); i++) {
+                            regions.add(merge.getAreaAt(i));
+                        }
+                    }
+                    break;
+                case RowRecord.sid:
+                    if (inSheet) {
+                        int row = ((RowRecord) record).getRowNumber();
+                        ordered &= row > lastRowRecord && row > lastCellRow;
+                        lastRowRecord = row;
+                    }
+                    break;
+                default:
+                    if (inSheet) {
+                        int row = cellRow(record);
+                        if (row >= 0) {
+                            ordered &= row >= lastCellRow;
+                            lastCellRow = row;
+                        }
+                    }
+                    break;
+            }
+        }
+
+        /**
+         * @return 目标工作表 BOF 记录在工作簿流中的偏移，无法确定时返回 -1
+         */
+        int bofPosition() {
+            if (encrypted) {
+                // 加密流的解密依赖从头读取
+                return -1;
+            }
+            BoundSheetRecord[] sheets = BoundSheetRecord.orderByBofPosition(boundSheets);
+            return targetSubstream >= 0 && targetSubstream < sheets.length ? sheets[targetSubstream].getPositionOfBof() : -1;
+        }
+
+        ExcelNumberFormat numberFormat(int xfIndex) {
+            int formatIndex = xfIndex < xfCount ? xfFormats[xfIndex] & 0xFFFF : 0;
+            String format = customFormats.get(formatIndex);
+            return new ExcelNumberFormat(formatIndex, format != null ? format : BuiltinFormats.getBuiltinFormat(formatIndex));
+        }
+    }
+
+    /**
+     * 单元格类记录的行号，非单元格记录返回 -1
+     */
+    private static int cellRow(Record record) {
+        if (record instanceof CellValueRecordInterface) {
+            return ((CellValueRecordInterface) record).getRow();
+        }
+        if (record instanceof MulRKRecord) {
+            return ((MulRKRecord) record).getRow();
+        }
+        if (record instanceof MulBlankRecord) {
+            return ((MulBlankRecord) record).getRow();
+        }
+        return -1;
+    }
+
+    /**
+     * 第二遍解析：按行组装目标工作表的数据并填充合并单元格
+     * <p>
+     * 行记录（RowRecord）按块出现在单元格之前，只有行记录而没有单元格的行与 DOM 读取一样输出为空行。
+     */
+    private static class SheetRecordHandler extends SheetLocator {
+        private final SSTRecord sst;
+        private final WorkbookScanner scanner;
+        private final CellFormatCache formats;
+        private final StringDeduplicator deduplicator;
+        private final RowHandler rowHandler;
+
+        private final MergedRegionIndex mergedIndex;
+        private final String[] mergedValues;
+
+        // 已出现行记录、尚未输出的行号
+        private final ArrayDeque<Integer> pendingRows = new ArrayDeque<>();
+        private int lastEmittedRow = -1;
+        private boolean started;
+
+        // 当前行：按列号存放单元格值，[firstCol, lastCol) 为单元格范围
+        private int currentRow = -1;
+        private String[] cells = new String[16];
+        private int firstCol = Integer.MAX_VALUE;
+        private int lastCol = -1;
+
+        // 等待 StringRecord 的字符串公式单元格
+        private int pendingFormulaRow = -1;
+        private int pendingFormulaCol = -1;
+
+        SheetRecordHandler(WorkbookScanner scanner, int sheetIndex, MergedRegionIndex mergedIndex, RowHandler rowHandler,
+                           StringDeduplicator deduplicator) {
+            super(sheetIndex);
+            this.sst = scanner.sst;
+            this.scanner = scanner;
+            this.formats = new CellFormatCache(scanner.xfCount, scanner.date1904);
+            this.deduplicator = deduplicator;
+            this.rowHandler = rowHandler;
+            this.mergedIndex = mergedIndex;
+            this.mergedValues = new String[mergedIndex.size()];
+            Arrays.fill(mergedValues, "");
+        }
+
+        @Override
+        void processRecord(Record record, boolean inSheet) {
+            if (!inSheet) {
+                return;
+            }
+            started = true;
+            switch (record.getSid()) {
+                case RowRecord.sid:
+                    pendingRows.add(((RowRecord) record).getRowNumber());
+                    break;
+                case NumberRecord.sid:
+                    NumberRecord number = (NumberRecord) record;
+                    putNumber(number.getRow(), number.getColumn(), number.getXFIndex(), number.getValue());
+                    break;
+                case RKRecord.sid:
+                    RKRecord rk = (RKRecord) record;
+                    putNumber(rk.getRow(), rk.getColumn(), rk.getXFIndex(), rk.getRKNumber());
+                    break;
+                case MulRKRecord.sid:
+                    MulRKRecord mulRk = (MulRKRecord) record;
+                    for (int i = 0; i < mulRk.getNumColumns(); i++) {
+                        putNumber(mulRk.getRow(), mulRk.getFirstColumn() + i, mulRk.getXFAt(i), mulRk.getRKNumberAt(i));
+                    }
+                    break;
+                case LabelSSTRecord.sid:
+                    LabelSSTRecord label = (LabelSSTRecord) record;
+                    int index = label.getSSTIndex();
+                    String value = deduplicator.getShared(sst, index);
+                    if (value == null) {
+                        value = deduplicator.putShared(sst, index, sst.getString(index).getString());
+                    }
+                    put(label.getRow(), label.getColumn(), value);
+                    break;
+                case LabelRecord.sid:
+                    LabelRecord oldLabel = (LabelRecord) record;
+                    put(oldLabel.getRow(), oldLabel.getColumn(), deduplicator.intern(oldLabel.getValue()));
+                    break;
+                case BoolErrRecord.sid:
+                    BoolErrRecord boolErr = (BoolErrRecord) record;
+                    put(boolErr.getRow(), boolErr.getColumn(), boolErr.isBoolean() ? String.valueOf(boolErr.getBooleanValue()) : "");
+                    break;
+                case BlankRecord.sid:
+                    BlankRecord blank = (BlankRecord) record;
+                    put(blank.getRow(), blank.getColumn(), "");
+                    break;
+                case MulBlankRecord.sid:
+                    MulBlankRecord mulBlank = (MulBlankRecord) record;
+                    for (int col = mulBlank.getFirstColumn(); col <= mulBlank.getLastColumn(); col++) {
+                        put(mulBlank.getRow(), col, "");
+                    }
+                    break;
+                case FormulaRecord.sid:
+                    putFormula((FormulaRecord) record);
+                    break;
+                case StringRecord.sid:
+                    // 字符串公式的缓存结果
+                    if (pendingFormulaRow >= 0) {
+                        put(pendingFormulaRow, pendingFormulaCol, deduplicator.intern(((StringRecord) record).getString()));
+                        pendingFormulaRow = -1;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        void endSheet() {
+            finishRow();
+            flushPendingRows(Integer.MAX_VALUE);
+        }
+
+        private void putFormula(FormulaRecord formula) {
+            pendingFormulaRow = -1;
+            int cachedType = formula.getCachedResultType();
+            if (cachedType == CACHED_STRING) {
+                // 空字符串结果没有 StringRecord
+                put(formula.getRow(), formula.getColumn(), "");
+                pendingFormulaRow = formula.getRow();
+                pendingFormulaCol = formula.getColumn();
+            } else if (cachedType == CACHED_BOOLEAN) {
+                put(formula.getRow(), formula.getColumn(), String.valueOf(formula.getCachedBooleanValue()));
+            } else if (cachedType == CACHED_ERROR) {
+                put(formula.getRow(), formula.getColumn(), "");
+            } else {
+                put(formula.getRow(), formula.getColumn(), String.valueOf(formula.getValue()));
+            }
+        }
+
+        private void putNumber(int row, int col, int xfIndex, double value) {
+            boolean date = formats.isDateFormatted(xfIndex & 0xFFFF, value, scanner::numberFormat);
+            put(row, col, formats.formatNumeric(value, date));
+        }
+
+        private void put(int row, int col, String value) {
+            if (row != currentRow) {
+                finishRow();
+                flushPendingRows(row);
+                if (!pendingRows.isEmpty() && pendingRows.peek() == row) {
+                    pendingRows.poll();
+                }
+                currentRow = row;
+            }
+
+            if (col >= cells.length) {
+                cells = Arrays.copyOf(cells, Math.max(col + 1, cells.length << 1));
+            }
+            cells[col] = value;
+            firstCol = Math.min(firstCol, col);
+            lastCol = Math.max(lastCol, col + 1);
+
+            int regionId = mergedIndex.find(row, col);
+            if (regionId >= 0 && mergedIndex.isTopLeft(regionId, row, col)) {
+                mergedValues[regionId] = value;
+            }
+        }
+
+        /**
+         * 输出当前行；同一行内的单元格可能乱序，因此在整行结束后再填充合并值
+         */
+        private void finishRow() {
+            if (currentRow < 0) {
+                return;
+            }
+            List<String> rowData = new ArrayList<>(lastCol - firstCol);
+            for (int j = firstCol; j < lastCol; j++) {
+                int regionId = mergedIndex.find(currentRow, j);
+                if (regionId >= 0) {
+                    rowData.add(mergedValues[regionId]);
+                } else {
+                    rowData.add(cells[j] != null ? cells[j] : "");
+                }
+            }
+            Arrays.fill(cells, firstCol, lastCol, null);
+            emit(currentRow, firstCol, rowData);
+            firstCol = Integer.MAX_VALUE;
+            lastCol = -1;
+            currentRow = -1;
+        }
+
+        /**
+         * 输出行号小于 beforeRow、只有行记录没有单元格的行
+         */
+        private void flushPendingRows(int beforeRow) {
+            while (!pendingRows.isEmpty() && pendingRows.peek() < beforeRow) {
+                int row = pendingRows.poll();
+                if (row > lastEmittedRow) {
+                    emit(row, 0, new ArrayList<>());
+                }
+            }
+        }
+
+        private void emit(int row, int firstColumn, List<String> rowData) {
+            // 与 DOM 读取保持一致：中间缺失的行输出为空行
+            if (lastEmittedRow >= 0) {
+                for (int i = lastEmittedRow + 1; i < row; i++) {
+                    rowHandler.handleRow(i, new ArrayList<>());
+                }
+            }
+            rowHandler.handleRow(row, firstColumn, rowData);
+            lastEmittedRow = row;
+        }
+    }
+}
@@ -0,0 +1,896 @@
+package many_utils.excelModule;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 基于 XSSF 事件模型（XSSFReader + SAX）的 xlsx 流式读取器
+ * <p>
+ * 与 {@link ExcelPOIReaderUtil#readSheetWithMerge} 输出一致，但不构建 XSSFWorkbook，
+ * 内存占用只与合并区域数量相关（见 {@link MergedRegionIndex}），与行数无关。
+ * <p>
+ * 由于 {@code <mergeCells>} 位于 {@code <sheetData>} 之后，这里对工作表 XML 解析两遍：
+ * 第一遍只收集合并区域，第二遍逐行输出数据并填充合并单元格。
+ */
+public class XlsxStreamingReader {
+
+    /**
+     * 流式读取 xlsx 文件的指定工作表
+     *
+     * @param filePath   xlsx 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @param handler    行回调
+     * @throws IOException 文件读取或解析异常
+     */
+    public static void read(String filePath, int sheetIndex, RowHandler handler) throws IOException {
+        read(filePath, sheetIndex, handler, new StringDeduplicator());
+    }
+
+    /**
+     * 流式读取 xlsx 文件的指定工作表，重复的字符串共享同一实例
+     *
+     * @param filePath     xlsx 文件路径
+     * @param sheetIndex   工作表索引（从0开始）
+     * @param handler      行回调
+     * @param deduplicator 字符串去重器
+     * @throws IOException 文件读取或解析异常
+     */
+    public static void read(String filePath, int sheetIndex, RowHandler handler, StringDeduplicator deduplicator) throws IOException {
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(filePath, PackageAccess.READ);
+        } catch (InvalidFormatException e) {
+            throw new IOException("无法打开 xlsx 文件: " + filePath, e);
+        }
+
+        try {
+            read(pkg, sheetIndex, handler, deduplicator);
+        } finally {
+            // 只读打开的包使用 revert 释放，close 会尝试保存
+            pkg.revert();
+        }
+    }
+
+    /**
+     * 流式读取已打开的 OPC 包中的指定工作表，调用方负责关闭包
+     *
+     * @param pkg        已打开的 OPC 包
+     * @param sheetIndex 工作表索引（从0开始）
+     * @param handler    行回调
+     * @throws IOException 解析异常
+     */
+    public static void read(OPCPackage pkg, int sheetIndex, RowHandler handler) throws IOException {
+        read(pkg, sheetIndex, handler, new StringDeduplicator());
+    }
+
+    /**
+     * 流式读取已打开的 OPC 包中的指定工作表，调用方负责关闭包
+     *
+     * @param pkg          已打开的 OPC 包
+     * @param sheetIndex   工作表索引（从0开始）
+     * @param handler      行回调
+     * @param deduplicator 字符串去重器
+     * @throws IOException 解析异常
+     */
+    public static void read(OPCPackage pkg, int sheetIndex, RowHandler handler, StringDeduplicator deduplicator) throws IOException {
+        read(pkg, sheetIndex, ReadOptions.all(), handler, deduplicator);
+    }
+
+    /**
+     * 按读取选项流式读取 xlsx 文件的指定工作表
+     *
+     * @param filePath   xlsx 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @param options    读取选项（行范围、列投影）
+     * @param handler    行回调
+     * @throws IOException 文件读取或解析异常
+     */
+    public static void read(String filePath, int sheetIndex, ReadOptions options, RowHandler handler) throws IOException {
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(filePath, PackageAccess.READ);
+        } catch (InvalidFormatException e) {
+            throw new IOException("无法打开 xlsx 文件: " + filePath, e);
+        }
+
+        try {
+            read(pkg, sheetIndex, options, handler, new StringDeduplicator());
+        } finally {
+            pkg.revert();
+        }
+    }
+
+    /**
+     * 按读取选项流式读取已打开的 OPC 包中的指定工作表，调用方负责关闭包
+     * <p>
+     * 所选范围之外的单元格不做转换（合并区域的左上角单元格除外），读完最后一行后立即停止解析
+     *
+     * @param pkg          已打开的 OPC 包
+     * @param sheetIndex   工作表索引（从0开始）
+     * @param options      读取选项（行范围、列投影）
+     * @param handler      行回调
+     * @param deduplicator 字符串去重器
+     * @throws IOException 解析异常
+     */
+    public static void read(OPCPackage pkg, int sheetIndex, ReadOptions options, RowHandler handler,
+                            StringDeduplicator deduplicator) throws IOException {
+        options.validateForStreaming();
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            PackagePart sheetPart = findSheetPart(reader, sheetIndex);
+            readSheet(sheetPart, WorkbookContext.load(pkg, reader, deduplicator), options, handler);
+        } catch (OpenXML4JException | SAXException e) {
+            throw new IOException("解析 xlsx 工作表失败", e);
+        }
+    }
+
+    /**
+     * 依次流式读取 xlsx 文件的所有工作表，只打开一次包，共享字符串表和样式只加载一次
+     *
+     * @param filePath     xlsx 文件路径
+     * @param handler      工作表回调
+     * @param deduplicator 字符串去重器
+     * @throws IOException 文件读取或解析异常
+     */
+    static void readSheets(String filePath, SheetHandler handler, StringDeduplicator deduplicator) throws IOException {
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(filePath, PackageAccess.READ);
+        } catch (InvalidFormatException e) {
+            throw new IOException("无法打开 xlsx 文件: " + filePath, e);
+        }
+
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            WorkbookContext context = WorkbookContext.load(pkg, reader, deduplicator);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            for (int i = 0; sheets.hasNext(); i++) {
+                sheets.next().close();
+                readSheet(sheets.getSheetPart(), context, ReadOptions.all(), handler.startSheet(i, sheets.getSheetName()));
+                handler.endSheet(i);
+            }
+        } catch (OpenXML4JException | SAXException e) {
+            throw new IOException("解析 xlsx 工作表失败", e);
+        } finally {
+            pkg.revert();
+        }
+    }
+
+    /**
+     * 读取 xlsx 文件的工作表名称，不解析工作表内容
+     *
+     * @param filePath xlsx 文件路径
+     * @return 按工作表顺序排列的名称
+     * @throws IOException 文件读取异常
+     */
+    public static List<String> getSheetNames(String filePath) throws IOException {
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(filePath, PackageAccess.READ);
+        } catch (InvalidFormatException e) {
+            throw new IOException("无法打开 xlsx 文件: " + filePath, e);
+        }
+
+        try {
+            List<String> names = new ArrayList<>();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+            while (sheets.hasNext()) {
+                sheets.next().close();
+                names.add(sheets.getSheetName());
+            }
+            return names;
+        } catch (OpenXML4JException e) {
+            throw new IOException("解析 xlsx 工作簿失败", e);
+        } finally {
+            pkg.revert();
+        }
+    }
+
+    /**
+     * 按需逐行读取 xlsx 文件的指定工作表
+     *
+     * @param filePath   xlsx 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @return 行迭代器，使用完毕（或提前结束）时需关闭
+     * @throws IOException 文件读取或解析异常
+     */
+    public static SheetRowIterator iterator(String filePath, int sheetIndex) throws IOException {
+        return iterator(filePath, sheetIndex, ReadOptions.all());
+    }
+
+    /**
+     * 按读取选项按需逐行读取 xlsx 文件的指定工作表
+     * <p>
+     * 合并区域仍需先完整扫描一遍工作表；第二遍改为 StAX 拉取解析，每次只解析到下一行，
+     * 迭代器关闭时停止解析并释放 OPC 包。
+     *
+     * @param filePath   xlsx 文件路径
+     * @param sheetIndex 工作表索引（从0开始）
+     * @param options    读取选项（行范围、列投影）
+     * @return 行迭代器，使用完毕（或提前结束）时需关闭
+     * @throws IOException 文件读取或解析异常
+     */
+    public static SheetRowIterator iterator(String filePath, int sheetIndex, ReadOptions options) throws IOException {
+        options.validateForStreaming();
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(filePath, PackageAccess.READ);
+        } catch (InvalidFormatException e) {
+            throw new IOException("无法打开 xlsx 文件: " + filePath, e);
+        }
+
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            PackagePart sheetPart = findSheetPart(reader, sheetIndex);
+            WorkbookContext context = WorkbookContext.load(pkg, reader, new StringDeduplicator());
+
+            // 第一遍：收集合并区域
+            MergeCellsCollector collector = new MergeCellsCollector();
+            parse(sheetPart, collector);
+
+            SheetRowIterator iterator = new SheetRowIterator();
+            SheetRowHandler handler = new SheetRowHandler(context, MergedRegionIndex.of(collector.regions), options,
+                    iterator.sink());
+            iterator.setSource(new StaxRowSource(pkg, sheetPart.getInputStream(), handler));
+            return iterator;
+        } catch (OpenXML4JException | SAXException | XMLStreamException e) {
+            pkg.revert();
+            throw new IOException("解析 xlsx 工作表失败", e);
+        } catch (IOException | RuntimeException e) {
+            pkg.revert();
+            throw e;
+        }
+    }
+
+    /**
+     * 并行读取 xlsx 文件的所有工作表，每个工作表从 OPC 包中各自的部件独立流式解析
+     *
+     * @param filePath xlsx 文件路径
+     * @param executor 执行解析任务的线程池
+     * @return 所有工作表的数据，按工作表顺序排列，key为工作表名称，value为数据
+     * @throws IOException 文件读取或解析异常
+     */
+    public static Map<String, List<List<String>>> readAllSheets(String filePath, Executor executor) throws IOException {
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(filePath, PackageAccess.READ);
+        } catch (InvalidFormatException e) {
+            throw new IOException("无法打开 xlsx 文件: " + filePath, e);
+        }
+
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            WorkbookContext context = WorkbookContext.load(pkg, reader, new StringDeduplicator());
+
+            List<String> sheetNames = new ArrayList<>();
+            List<CompletableFuture<List<List<String>>>> futures = new ArrayList<>();
+            AtomicBoolean failed = new AtomicBoolean();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                sheets.next().close();
+                PackagePart sheetPart = sheets.getSheetPart();
+                sheetNames.add(sheets.getSheetName());
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    // 已有工作表失败时，尚未开始的任务直接跳过
+                    if (failed.get()) {
+                        return null;
+                    }
+                    List<List<String>> rows = new ArrayList<>();
+                    try {
+                        readSheet(sheetPart, context, ReadOptions.all(), (rowIndex, rowData) -> rows.add(rowData));
+                    } catch (IOException | SAXException | RuntimeException e) {
+                        failed.set(true);
+                        throw new CompletionException(e);
+                    }
+                    return rows;
+                }, executor));
+            }
+
+            return collect(sheetNames, futures);
+        } catch (OpenXML4JException | SAXException e) {
+            throw new IOException("解析 xlsx 工作表失败", e);
+        } finally {
+            pkg.revert();
+        }
+    }
+
+    /**
+     * 按工作表顺序收集结果；任一工作表失败时等待其余任务结束后再抛出，避免关闭仍在读取的包
+     */
+    private static Map<String, List<List<String>>> collect(List<String> sheetNames,
+                                                           List<CompletableFuture<List<List<String>>>> futures) throws IOException {
+        Map<String, List<List<String>>> allSheetsData = new LinkedHashMap<>();
+        Throwable failure = null;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                allSheetsData.put(sheetNames.get(i), futures.get(i).join());
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() != null ? e.getCause() : e;
+                }
+            }
+        }
+
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            throw new IOException("解析 xlsx 工作表失败", failure);
+        }
+        return allSheetsData;
+    }
+
+    private static void readSheet(PackagePart sheetPart, WorkbookContext context, ReadOptions options,
+                                  RowHandler handler) throws IOException, SAXException {
+        // 第一遍：收集合并区域（<mergeCells> 位于工作表末尾，这一遍无法提前结束）
+        MergeCellsCollector collector = new MergeCellsCollector();
+        parse(sheetPart, collector);
+
+        // 第二遍：逐行输出，读完所选的最后一行后提前结束
+        MergedRegionIndex mergedIndex = MergedRegionIndex.of(collector.regions);
+        try {
+            parse(sheetPart, new SheetRowHandler(context, mergedIndex, options, handler));
+        } catch (StopParsingException e) {
+            // 已读取到所选范围的最后一行
+        }
+    }
+
+    private static PackagePart findSheetPart(XSSFReader reader, int sheetIndex) throws IOException, InvalidFormatException {
+        XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+        int index = 0;
+        while (sheets.hasNext()) {
+            InputStream stream = sheets.next();
+            stream.close();
+            if (index == sheetIndex) {
+                return sheets.getSheetPart();
+            }
+            index++;
+        }
+        throw new IllegalArgumentException("工作表索引越界: " + sheetIndex);
+    }
+
+    private static void parse(PackagePart part, DefaultHandler contentHandler) throws IOException, SAXException {
+        try (InputStream stream = part.getInputStream()) {
+            parse(stream, contentHandler);
+        }
+    }
+
+    private static void parse(InputStream stream, DefaultHandler contentHandler) throws IOException, SAXException {
+        XMLReader xmlReader;
+        try {
+            xmlReader = XMLHelper.newXMLReader();
+        } catch (ParserConfigurationException e) {
+            throw new SAXException("无法创建 SAX 解析器", e);
+        }
+        xmlReader.setContentHandler(contentHandler);
+        xmlReader.parse(new InputSource(stream));
+    }
+
+    /**
+     * 解析单元格引用（如 "AB12"）中的列号（从0开始）
+     */
+    static int columnIndex(String cellRef) {
+        int col = 0;
+        for (int i = 0; i < cellRef.length(); i++) {
+            char c = cellRef.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            col = col * 26 + (c - 'A' + 1);
+        }
+        return col - 1;
+    }
+
+    /**
+     * 工作簿级别的只读数据，解析各工作表时共享
+     */
+    private static class WorkbookContext {
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final StylesTable styles;
+        private final CellFormatCache formats;
+        private final StringDeduplicator deduplicator;
+
+        private WorkbookContext(ReadOnlySharedStringsTable sharedStrings, StylesTable styles, boolean date1904,
+                                StringDeduplicator deduplicator) {
+            this.sharedStrings = sharedStrings;
+            this.styles = styles;
+            this.formats = CellFormatCache.of(styles, date1904);
+            this.deduplicator = deduplicator;
+        }
+
+        static WorkbookContext load(OPCPackage pkg, XSSFReader reader, StringDeduplicator deduplicator)
+                throws IOException, OpenXML4JException, SAXException {
+            Date1904Detector detector = new Date1904Detector();
+            try (InputStream workbookData = reader.getWorkbookData()) {
+                parse(workbookData, detector);
+            }
+            return new WorkbookContext(new ReadOnlySharedStringsTable(pkg), reader.getStylesTable(), detector.date1904,
+                    deduplicator);
+        }
+    }
+
+    /**
+     * 读取 workbook.xml 中的 date1904 标记
+     */
+    private static class Date1904Detector extends DefaultHandler {
+        private boolean date1904;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if ("workbookPr".equals(localName)) {
+                String value = attributes.getValue("date1904");
+                date1904 = "1".equals(value) || "true".equalsIgnoreCase(value);
+            }
+        }
+    }
+
+    /**
+     * 以 StAX 拉取事件驱动 {@link SheetRowHandler}，每次推进解析到一个 {@code <row>} 边界
+     */
+    private static class StaxRowSource implements SheetRowIterator.Source {
+        private final OPCPackage pkg;
+        private final InputStream stream;
+        private final XMLStreamReader xml;
+        private final DefaultHandler handler;
+        private final AttributesImpl attributes = new AttributesImpl();
+
+        StaxRowSource(OPCPackage pkg, InputStream stream, DefaultHandler handler) throws XMLStreamException {
+            this.pkg = pkg;
+            this.stream = stream;
+            this.handler = handler;
+            try {
+                this.xml = XMLHelper.newXMLInputFactory().createXMLStreamReader(stream);
+            } catch (XMLStreamException | RuntimeException e) {
+                IOUtils.closeQuietly(stream);
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean advance() throws IOException {
+            try {
+                while (xml.hasNext()) {
+                    switch (xml.next()) {
+                        case XMLStreamConstants.START_ELEMENT:
+                            attributes.clear();
+                            for (int i = 0; i < xml.getAttributeCount(); i++) {
+                                String localName = xml.getAttributeLocalName(i);
+                                attributes.addAttribute(xml.getAttributeNamespace(i), localName, localName,
+                                        "CDATA", xml.getAttributeValue(i));
+                            }
+                            handler.startElement(xml.getNamespaceURI(), xml.getLocalName(), xml.getLocalName(), attributes);
+                            if ("row".equals(xml.getLocalName())) {
+                                return true;
+                            }
+                            break;
+                        case XMLStreamConstants.END_ELEMENT:
+                            handler.endElement(xml.getNamespaceURI(), xml.getLocalName(), xml.getLocalName());
+                            if ("row".equals(xml.getLocalName())) {
+                                return true;
+                            }
+                            break;
+                        case XMLStreamConstants.CHARACTERS:
+                        case XMLStreamConstants.CDATA:
+                        case XMLStreamConstants.SPACE:
+                            handler.characters(xml.getTextCharacters(), xml.getTextStart(), xml.getTextLength());
+                            break;
+                        default:
+                            break;
+                    }
+                }
+                handler.endDocument();
+                return false;
+            } catch (StopParsingException e) {
+                return false;
+            } catch (SAXException | XMLStreamException e) {
+                throw new IOException("解析 xlsx 工作表失败", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                xml.close();
+            } catch (XMLStreamException e) {
+                // 继续释放文件
+            }
+            IOUtils.closeQuietly(stream);
+            pkg.revert();
+        }
+    }
+
+    /**
+     * 用于提前结束 SAX 解析
+     */
+    private static class StopParsingException extends SAXException {
+        private static final long serialVersionUID = 1L;
+
+        StopParsingException() {
+            super("已读取到所选范围的最后一行");
+        }
+    }
+
+    /**
+     * 第一遍解析：只收集 {@code <mergeCell ref="A1:B2"/>}
+     */
+    private static class MergeCellsCollector extends DefaultHandler {
+        private final List<CellRangeAddress> regions = new ArrayList<>();
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if ("mergeCell".equals(localName)) {
+                String ref = attributes.getValue("ref");
+                if (ref != null) {
+                    regions.add(CellRangeAddress.valueOf(ref));
+                }
+            }
+        }
+    }
+
+    /**
+     * 第二遍解析：按行组装数据并填充合并单元格
+     * <p>
+     * 所选范围之外的单元格不收集文本也不转换，只有合并区域的左上角单元格例外，
+     * 这样跨越所选行列边界的合并单元格仍能取到正确的值。
+     */
+    private static class SheetRowHandler extends DefaultHandler {
+        private final ReadOptions options;
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final StylesTable styles;
+        private final CellFormatCache formats;
+        private final StringDeduplicator deduplicator;
+        private final RowHandler rowHandler;
+
+        // 合并区域索引，以及按区域编号记录的左上角单元格的值
+        private final MergedRegionIndex mergedIndex;
+        private final String[] mergedValues;
+
+        // 行范围；列投影（未投影时为 null），slots 为列号到输出位置的映射
+        private final int firstRow;
+        private final int lastRow;
+        private int[] columns;
+        private int[] slots;
+        private String[] rowValues;
+        // 按表头名称投影时，表头行解析完成前为 true
+        private boolean headerPending;
+        private List<String> header;
+
+        // 行状态
+        private int rowIndex = -1;
+        private int lastSeenRow = -1;
+        private boolean inRange;
+        private boolean isHeaderRow;
+        private List<String> rowData;
+        private int nextCol;
+        // rowData 第一个值所在的列
+        private int firstCol;
+        private int cellCursor;
+
+        // 单元格状态
+        private int col;
+        private boolean skipCell;
+        private String cellType;
+        private int styleIndex;
+        private boolean isFormula;
+        private boolean inValue;
+        private boolean inInlineString;
+        private boolean inPhonetic;
+        private final StringBuilder text = new StringBuilder();
+
+        SheetRowHandler(WorkbookContext context, MergedRegionIndex mergedIndex, ReadOptions options, RowHandler rowHandler) {
+            this.options = options;
+            this.sharedStrings = context.sharedStrings;
+            this.styles = context.styles;
+            this.formats = context.formats;
+            this.deduplicator = context.deduplicator;
+            this.rowHandler = rowHandler;
+            this.mergedIndex = mergedIndex;
+            this.mergedValues = new String[mergedIndex.size()];
+            Arrays.fill(mergedValues, "");
+            this.firstRow = options.getFirstRow();
+            this.lastRow = options.getLastRow();
+            this.headerPending = options.hasHeaders();
+            if (options.getColumns() != null) {
+                project(options.getColumns());
+            }
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            switch (localName) {
+                case "row":
+                    startRow(attributes.getValue("r"));
+                    break;
+                case "c":
+                    String ref = attributes.getValue("r");
+                    col = ref != null ? columnIndex(ref) : cellCursor;
+                    cellCursor = col + 1;
+                    skipCell = !isCaptured(col);
+                    if (skipCell) {
+                        break;
+                    }
+                    cellType = attributes.getValue("t");
+                    String style = attributes.getValue("s");
+                    styleIndex = style != null ? Integer.parseInt(style) : 0;
+                    isFormula = false;
+                    text.setLength(0);
+                    break;
+                case "f":
+                    isFormula = true;
+                    break;
+                case "v":
+                    inValue = true;
+                    text.setLength(0);
+                    break;
+                case "is":
+                    inInlineString = true;
+                    break;
+                case "rPh":
+                    inPhonetic = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "row":
+                    endRow();
+                    break;
+                case "c":
+                    endCell();
+                    break;
+                case "v":
+                    inValue = false;
+                    break;
+                case "is":
+                    inInlineString = false;
+                    break;
+                case "rPh":
+                    inPhonetic = false;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (!skipCell && (inValue || (inInlineString && !inPhonetic))) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endDocument() {
+            if (headerPending) {
+                resolveHeader();
+            }
+        }
+
+        private void startRow(String ref) throws SAXException {
+            rowIndex = ref != null ? Integer.parseInt(ref) - 1 : rowIndex + 1;
+            if (headerPending && rowIndex > options.getHeaderRow()) {
+                // 表头行不存在
+                resolveHeader();
+            }
+
+            // 与 DOM 读取保持一致：中间缺失的行输出为空行
+            if (lastSeenRow >= 0) {
+                for (int i = Math.max(lastSeenRow + 1, firstRow); i < rowIndex && i <= lastRow; i++) {
+                    rowHandler.handleRow(i, missingRow(i));
+                }
+            }
+            lastSeenRow = rowIndex;
+            if (rowIndex > lastRow) {
+                throw new StopParsingException();
+            }
+
+            inRange = rowIndex >= firstRow;
+            isHeaderRow = headerPending && rowIndex == options.getHeaderRow();
+            if (isHeaderRow) {
+                header = new ArrayList<>();
+            }
+            if (inRange) {
+                if (slots == null) {
+                    rowData = new ArrayList<>();
+                } else {
+                    Arrays.fill(rowValues, null);
+                }
+            }
+            nextCol = 0;
+            firstCol = 0;
+            cellCursor = 0;
+        }
+
+        private void endRow() {
+            if (isHeaderRow) {
+                isHeaderRow = false;
+                resolveHeader();
+            }
+            if (inRange) {
+                if (slots == null) {
+                    rowHandler.handleRow(rowIndex, firstCol, rowData);
+                } else {
+                    rowHandler.handleRow(rowIndex, 0, projectedRow());
+                }
+            }
+            rowData = null;
+        }
+
+        private void endCell() {
+            if (skipCell) {
+                return;
+            }
+            String value = cellValue();
+
+            int regionId = mergedIndex.find(rowIndex, col);
+            if (regionId >= 0) {
+                // 左上角单元格总是先于区域内其他单元格被解析
+                if (mergedIndex.isTopLeft(regionId, rowIndex, col)) {
+                    mergedValues[regionId] = value;
+                }
+                value = mergedValues[regionId];
+            }
+
+            if (isHeaderRow) {
+                for (int j = header.size(); j < col; j++) {
+                    header.add(mergedValue(rowIndex, j));
+                }
+                header.add(value);
+            }
+            if (!inRange) {
+                return;
+            }
+
+            if (slots != null) {
+                if (col < slots.length && slots[col] >= 0) {
+                    rowValues[slots[col]] = value;
+                }
+                return;
+            }
+
+            // 与 DOM 读取保持一致：从该行第一个单元格开始，中间缺失的单元格填空或合并值
+            if (rowData.isEmpty()) {
+                nextCol = col;
+                firstCol = col;
+            }
+            for (int j = nextCol; j < col; j++) {
+                rowData.add(mergedValue(rowIndex, j));
+            }
+            rowData.add(value);
+            nextCol = col + 1;
+        }
+
+        /**
+         * 是否需要转换该单元格：所选范围内的单元格、表头行单元格、合并区域左上角单元格
+         */
+        private boolean isCaptured(int col) {
+            if (isHeaderRow || (inRange && (slots == null || (col < slots.length && slots[col] >= 0)))) {
+                return true;
+            }
+            if (mergedIndex.isEmpty()) {
+                return false;
+            }
+            int regionId = mergedIndex.find(rowIndex, col);
+            return regionId >= 0 && mergedIndex.isTopLeft(regionId, rowIndex, col);
+        }
+
+        private String mergedValue(int row, int col) {
+            int regionId = mergedIndex.find(row, col);
+            return regionId >= 0 ? mergedValues[regionId] : "";
+        }
+
+        private List<String> projectedRow() {
+            List<String> values = new ArrayList<>(columns.length);
+            for (int column : columns) {
+                String value = rowValues[slots[column]];
+                values.add(value != null ? value : mergedValue(rowIndex, column));
+            }
+            return values;
+        }
+
+        private List<String> missingRow(int row) {
+            if (slots == null) {
+                return new ArrayList<>();
+            }
+            List<String> values = new ArrayList<>(columns.length);
+            for (int column : columns) {
+                values.add(mergedValue(row, column));
+            }
+            return values;
+        }
+
+        private void resolveHeader() {
+            headerPending = false;
+            project(options.resolveColumns(header != null ? header : new ArrayList<>()));
+            header = null;
+        }
+
+        private void project(int[] selected) {
+            int maxColumn = 0;
+            for (int column : selected) {
+                maxColumn = Math.max(maxColumn, column);
+            }
+            columns = selected;
+            slots = new int[maxColumn + 1];
+            Arrays.fill(slots, -1);
+            for (int i = 0; i < selected.length; i++) {
+                if (slots[selected[i]] < 0) {
+                    slots[selected[i]] = i;
+                }
+            }
+            rowValues = new String[selected.length];
+        }
+
+        /**
+         * 与 ExcelPOIReaderUtil.getCellValueAsString 的转换规则保持一致
+         */
+        private String cellValue() {
+            if ("inlineStr".equals(cellType)) {
+                return deduplicator.intern(text.toString());
+            }
+            if (text.length() == 0) {
+                return "";
+            }
+            String raw = text.toString();
+            if (cellType == null || "n".equals(cellType)) {
+                double numericValue = Double.parseDouble(raw);
+                return formats.formatNumeric(numericValue, !isFormula && formats.isDateFormatted(styleIndex, numericValue, styles));
+            }
+            switch (cellType) {
+                case "s":
+                    int index = Integer.parseInt(raw.trim());
+                    String value = deduplicator.getShared(sharedStrings, index);
+                    return value != null ? value : deduplicator.putShared(sharedStrings, index, sharedStrings.getItemAt(index).getString());
+                case "str":
+                    return deduplicator.intern(raw);
+                case "b":
+                    return String.valueOf("1".equals(raw));
+                case "e":
+                    return "";
+                default:
+                    return raw;
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package many_utils.primitive;
+
+/**
+ * 开放寻址哈希表共用的散列和容量计算
+ * <p>
+ * 线性探测，最大装载因子 1/2；0 作为空槽标记，键 0 单独存放。
+ * 散列用黄金分割乘法再混合高位，连续的整数也能均匀分布到各个槽。
+ */
+final class Hashing {
+
+    static final int MAX_CAPACITY = 1 << 30;
+
+    private Hashing() {
+    }
+
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * @return 能容纳 expectedSize 个键的槽数，2 的幂，至少为 8
+     */
+    static int capacityFor(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("预期大小不能为负数: " + expectedSize);
+        }
+        long required = Math.max(8L, (long) expectedSize * 2);
+        if (required > MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        return Integer.highestOneBit((int) required - 1) << 1;
+    }
+
+    /**
+     * @return 槽数为 capacity 时允许的最大键数（不含键 0）
+     */
+    static int resizeThreshold(int capacity) {
+        return capacity >> 1;
+    }
+
+    static void checkResizable(int capacity) {
+        if (capacity == MAX_CAPACITY) {
+            throw new IllegalStateException("哈希表已达最大容量");
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package many_utils.primitive;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * int 的开放寻址哈希集合，键直接存放在 int[] 中，不装箱
+ * <p>
+ * 线性探测，装载因子不超过 1/2，每个元素平均占 8~16 字节（HashSet&lt;Integer&gt; 约 48 字节）。
+ * 删除时把后续同簇的键前移，不留墓碑，删除后查找不变慢。迭代顺序不确定。不是线程安全的。
+ */
+public final class IntHashSet {
+
+    private int[] keys;
+    private int mask;
+    private int resizeAt;
+    private int size;
+    private boolean hasZero;
+
+    public IntHashSet() {
+        this(0);
+    }
+
+    /**
+     * @param expectedSize 预期元素个数，达到这个个数之前不扩容
+     */
+    public IntHashSet(int expectedSize) {
+        allocate(Hashing.capacityFor(expectedSize));
+    }
+
+    public static IntHashSet of(int... values) {
+        IntHashSet set = new IntHashSet(values.length);
+        for (int value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    /**
+     * @return 集合中原来没有这个值时返回 true
+     */
+    public boolean add(int value) {
+        if (value == 0) {
+            if (hasZero) {
+                return false;
+            }
+            hasZero = true;
+            return true;
+        }
+        int i = Hashing.mix(value) & mask;
+        for (int k; (k = keys[i]) != 0; i = (i + 1) & mask) {
+            if (k == value) {
+                return false;
+            }
+        }
+        keys[i] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+
+    public void addAll(IntArrayList values) {
+        values.forEach(this::add);
+    }
+
+    public boolean contains(int value) {
+        if (value == 0) {
+            return hasZero;
+        }
+        int i = Hashing.mix(value) & mask;
+        for (int k; (k = keys[i]) != 0; i = (i + 1) & mask) {
+            if (k == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return 集合中有这个值时返回 true
+     */
+    public boolean remove(int value) {
+        if (value == 0) {
+            boolean had = hasZero;
+            hasZero = false;
+            return had;
+        }
+        int i = Hashing.mix(value) & mask;
+        for (int k; (k = keys[i]) != 0; i = (i + 1) & mask) {
+            if (k == value) {
+                shiftKeys(i);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 删除 gap 处的键：把后面探测链上能放进空位的键依次前移，直到遇到空槽
+     */
+    private void shiftKeys(int gap) {
+        for (int j = (gap + 1) & mask; ; j = (j + 1) & mask) {
+            int k = keys[j];
+            if (k == 0) {
+                break;
+            }
+            int home = Hashing.mix(k) & mask;
+            // home 不在 (gap, j] 之间时，键可以前移到 gap
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = k;
+                gap = j;
+            }
+        }
+        keys[gap] = 0;
+    }
+
+    public int size() {
+        return hasZero ? size + 1 : size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * 清空元素，保留容量
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+        hasZero = false;
+    }
+
+    public void forEach(IntConsumer action) {
+        if (hasZero) {
+            action.accept(0);
+        }
+        for (int k : keys) {
+            if (k != 0) {
+                action.accept(k);
+            }
+        }
+    }
+
+    public int[] toArray() {
+        int[] result = new int[size()];
+        int n = 0;
+        if (hasZero) {
+            result[n++] = 0;
+        }
+        for (int k : keys) {
+            if (k != 0) {
+                result[n++] = k;
+            }
+        }
+        return result;
+    }
+
+    public IntStream stream() {
+        return Arrays.stream(toArray());
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = Hashing.resizeThreshold(capacity);
+    }
+
+    private void rehash(int capacity) {
+        Hashing.checkResizable(keys.length);
+        int[] old = keys;
+        allocate(capacity);
+        for (int k : old) {
+            if (k != 0) {
+                int i = Hashing.mix(k) & mask;
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = k;
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IntHashSet)) {
+            return false;
+        }
+        IntHashSet other = (IntHashSet) o;
+        if (size() != other.size() || hasZero != other.hasZero) {
+            return false;
+        }
+        for (int k : keys) {
+            if (k != 0 && !other.contains(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        // 与 Set<Integer> 的 hashCode 一致：元素哈希值之和
+        int h = 0;
+        for (int k : keys) {
+            h += k;
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
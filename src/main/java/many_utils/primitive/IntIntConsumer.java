@@ -0,0 +1,10 @@
+package many_utils.primitive;
+
+/**
+ * 接收一对 int 的回调，用于遍历 {@link IntIntMap}
+ */
+@FunctionalInterface
+public interface IntIntConsumer {
+
+    void accept(int key, int value);
+}
@@ -0,0 +1,237 @@
+package many_utils.primitive;
+
+import java.util.Arrays;
+
+/**
+ * int 到 int 的开放寻址哈希表，键和值分别存放在两个 int[] 中，不装箱
+ * <p>
+ * 查找不到键时返回构造时指定的缺省值（默认 0），需要区分“值为缺省值”和“键不存在”时用 {@link #containsKey}。
+ * 适合计数：{@code counts.addTo(key, 1)}。迭代顺序不确定。不是线程安全的。
+ */
+public final class IntIntMap {
+
+    private final int noEntryValue;
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int resizeAt;
+    private int size;
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public IntIntMap() {
+        this(0, 0);
+    }
+
+    /**
+     * @param expectedSize 预期键的个数，达到这个个数之前不扩容
+     * @param noEntryValue 键不存在时 get、put、remove 返回的值
+     */
+    public IntIntMap(int expectedSize, int noEntryValue) {
+        this.noEntryValue = noEntryValue;
+        allocate(Hashing.capacityFor(expectedSize));
+    }
+
+    /**
+     * @return 键对应的值，不存在时返回缺省值
+     */
+    public int get(int key) {
+        return getOrDefault(key, noEntryValue);
+    }
+
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int i = Hashing.mix(key) & mask;
+        for (int k; (k = keys[i]) != 0; i = (i + 1) & mask) {
+            if (k == key) {
+                return values[i];
+            }
+        }
+        return defaultValue;
+    }
+
+    public boolean containsKey(int key) {
+        if (key == 0) {
+            return hasZeroKey;
+        }
+        int i = Hashing.mix(key) & mask;
+        for (int k; (k = keys[i]) != 0; i = (i + 1) & mask) {
+            if (k == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return 原来的值，键不存在时返回缺省值
+     */
+    public int put(int key, int value) {
+        if (key == 0) {
+            int old = hasZeroKey ? zeroValue : noEntryValue;
+            hasZeroKey = true;
+            zeroValue = value;
+            return old;
+        }
+        int i = Hashing.mix(key) & mask;
+        for (int k; (k = keys[i]) != 0; i = (i + 1) & mask) {
+            if (k == key) {
+                int old = values[i];
+                values[i] = value;
+                return old;
+            }
+        }
+        insert(i, key, value);
+        return noEntryValue;
+    }
+
+    /**
+     * 把键的值加上 delta，键不存在时从 0 开始
+     *
+     * @return 相加后的值
+     */
+    public int addTo(int key, int delta) {
+        if (key == 0) {
+            zeroValue = hasZeroKey ? zeroValue + delta : delta;
+            hasZeroKey = true;
+            return zeroValue;
+        }
+        int i = Hashing.mix(key) & mask;
+        for (int k; (k = keys[i]) != 0; i = (i + 1) & mask) {
+            if (k == key) {
+                return values[i] += delta;
+            }
+        }
+        insert(i, key, delta);
+        return delta;
+    }
+
+    /**
+     * @return 删除的值，键不存在时返回缺省值
+     */
+    public int remove(int key) {
+        if (key == 0) {
+            int old = hasZeroKey ? zeroValue : noEntryValue;
+            hasZeroKey = false;
+            return old;
+        }
+        int i = Hashing.mix(key) & mask;
+        for (int k; (k = keys[i]) != 0; i = (i + 1) & mask) {
+            if (k == key) {
+                int old = values[i];
+                shiftKeys(i);
+                size--;
+                return old;
+            }
+        }
+        return noEntryValue;
+    }
+
+    private void insert(int slot, int key, int value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    /**
+     * 删除 gap 处的键值：把后面探测链上能放进空位的键值依次前移，直到遇到空槽
+     */
+    private void shiftKeys(int gap) {
+        for (int j = (gap + 1) & mask; ; j = (j + 1) & mask) {
+            int k = keys[j];
+            if (k == 0) {
+                break;
+            }
+            int home = Hashing.mix(k) & mask;
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = k;
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = 0;
+    }
+
+    public int size() {
+        return hasZeroKey ? size + 1 : size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * 清空键值，保留容量
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+        hasZeroKey = false;
+    }
+
+    public void forEach(IntIntConsumer action) {
+        if (hasZeroKey) {
+            action.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    public int[] keys() {
+        int[] result = new int[size()];
+        int n = 0;
+        if (hasZeroKey) {
+            result[n++] = 0;
+        }
+        for (int k : keys) {
+            if (k != 0) {
+                result[n++] = k;
+            }
+        }
+        return result;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = Hashing.resizeThreshold(capacity);
+    }
+
+    private void rehash(int capacity) {
+        Hashing.checkResizable(keys.length);
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            int k = oldKeys[j];
+            if (k != 0) {
+                int i = Hashing.mix(k) & mask;
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = k;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(key).append('=').append(value);
+        });
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,215 @@
+package many_utils.primitive;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+/**
+ * long 的开放寻址哈希集合，实现与 {@link IntHashSet} 相同，键存放在 long[] 中
+ * <p>
+ * 每个元素平均占 16~32 字节（HashSet&lt;Long&gt; 约 56 字节）。迭代顺序不确定。不是线程安全的。
+ */
+public final class LongHashSet {
+
+    private long[] keys;
+    private int mask;
+    private int resizeAt;
+    private int size;
+    private boolean hasZero;
+
+    public LongHashSet() {
+        this(0);
+    }
+
+    /**
+     * @param expectedSize 预期元素个数，达到这个个数之前不扩容
+     */
+    public LongHashSet(int expectedSize) {
+        allocate(Hashing.capacityFor(expectedSize));
+    }
+
+    public static LongHashSet of(long... values) {
+        LongHashSet set = new LongHashSet(values.length);
+        for (long value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    /**
+     * @return 集合中原来没有这个值时返回 true
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            if (hasZero) {
+                return false;
+            }
+            hasZero = true;
+            return true;
+        }
+        int i = Hashing.mix(value) & mask;
+        for (long k; (k = keys[i]) != 0; i = (i + 1) & mask) {
+            if (k == value) {
+                return false;
+            }
+        }
+        keys[i] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == 0) {
+            return hasZero;
+        }
+        int i = Hashing.mix(value) & mask;
+        for (long k; (k = keys[i]) != 0; i = (i + 1) & mask) {
+            if (k == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return 集合中有这个值时返回 true
+     */
+    public boolean remove(long value) {
+        if (value == 0) {
+            boolean had = hasZero;
+            hasZero = false;
+            return had;
+        }
+        int i = Hashing.mix(value) & mask;
+        for (long k; (k = keys[i]) != 0; i = (i + 1) & mask) {
+            if (k == value) {
+                shiftKeys(i);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 删除 gap 处的键：把后面探测链上能放进空位的键依次前移，直到遇到空槽
+     */
+    private void shiftKeys(int gap) {
+        for (int j = (gap + 1) & mask; ; j = (j + 1) & mask) {
+            long k = keys[j];
+            if (k == 0) {
+                break;
+            }
+            int home = Hashing.mix(k) & mask;
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = k;
+                gap = j;
+            }
+        }
+        keys[gap] = 0;
+    }
+
+    public int size() {
+        return hasZero ? size + 1 : size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * 清空元素，保留容量
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+        hasZero = false;
+    }
+
+    public void forEach(LongConsumer action) {
+        if (hasZero) {
+            action.accept(0);
+        }
+        for (long k : keys) {
+            if (k != 0) {
+                action.accept(k);
+            }
+        }
+    }
+
+    public long[] toArray() {
+        long[] result = new long[size()];
+        int n = 0;
+        if (hasZero) {
+            result[n++] = 0;
+        }
+        for (long k : keys) {
+            if (k != 0) {
+                result[n++] = k;
+            }
+        }
+        return result;
+    }
+
+    public LongStream stream() {
+        return Arrays.stream(toArray());
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = Hashing.resizeThreshold(capacity);
+    }
+
+    private void rehash(int capacity) {
+        Hashing.checkResizable(keys.length);
+        long[] old = keys;
+        allocate(capacity);
+        for (long k : old) {
+            if (k != 0) {
+                int i = Hashing.mix(k) & mask;
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = k;
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LongHashSet)) {
+            return false;
+        }
+        LongHashSet other = (LongHashSet) o;
+        if (size() != other.size() || hasZero != other.hasZero) {
+            return false;
+        }
+        for (long k : keys) {
+            if (k != 0 && !other.contains(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        // 与 Set<Long> 的 hashCode 一致：元素哈希值之和
+        int h = 0;
+        for (long k : keys) {
+            h += (int) (k ^ (k >>> 32));
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
@@ -0,0 +1,47 @@
+package many_utils.excelModule;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ColumnarSheetTest {
+
+    /**
+     * 合并区域左上角所在列长时间没有写入，该列数组尚未扩容到左上角所在行
+     */
+    @Test
+    public void mergeWithSparseTopLeftColumn() throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            sheet.createRow(0).createCell(5).setCellValue("head");
+            for (int i = 1; i <= 20; i++) {
+                sheet.createRow(i).createCell(0).setCellValue(i);
+            }
+            sheet.createRow(21).createCell(5).setCellValue("tail");
+            sheet.addMergedRegion(new CellRangeAddress(20, 21, 5, 5));
+
+            List<List<String>> rows = ExcelPOIReaderUtil.readSheetColumnar(sheet).asRows();
+
+            assertEquals(ExcelPOIReaderUtil.readSheetWithMerge(sheet), rows);
+            assertEquals(22, rows.size());
+        }
+    }
+
+    @Test
+    public void emptySheetMatchesRowReader() throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+
+            assertEquals(ExcelPOIReaderUtil.readSheetWithMerge(sheet),
+                    ExcelPOIReaderUtil.readSheetColumnar(sheet).asRows());
+        }
+    }
+}
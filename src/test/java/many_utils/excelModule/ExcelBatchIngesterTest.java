@@ -0,0 +1,77 @@
+package many_utils.excelModule;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ExcelBatchIngesterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * 流式读取所有工作表的结果与构建工作簿读取一致，包括空工作表和合并单元格
+     */
+    @Test
+    public void streamingMatchesWorkbook() throws Exception {
+        Path xlsx = write(new XSSFWorkbook(), "a.xlsx");
+        Path xls = write(new HSSFWorkbook(), "b.xls");
+        List<Path> files = Arrays.asList(xlsx, xls);
+
+        Map<String, List<List<String>>> dom = ingest(new ExcelBatchIngester(), files);
+        Map<String, List<List<String>>> streaming = ingest(new ExcelBatchIngester().streamingThreshold(0).chunkSize(2), files);
+
+        assertEquals(dom, streaming);
+        assertEquals(Arrays.asList(Arrays.asList("x", "x"), Collections.singletonList("1.0")), dom.get("a.xlsx#0"));
+        assertEquals(Collections.emptyList(), dom.get("b.xls#1"));
+        assertEquals(Collections.singletonList(Collections.singletonList("last")), dom.get("b.xls#2"));
+    }
+
+    private static Map<String, List<List<String>>> ingest(ExcelBatchIngester ingester, List<Path> files)
+            throws InterruptedException {
+        Map<String, List<List<String>>> sheets = new TreeMap<>();
+        List<ExcelBatchIngester.FileResult> results = ingester.ingest(files, (file, sheetIndex, sheetName, firstRowIndex, rows) ->
+                sheets.computeIfAbsent(file.getFileName() + "#" + sheetIndex, k -> new ArrayList<>()).addAll(rows));
+        for (ExcelBatchIngester.FileResult result : results) {
+            assertTrue(result.toString(), result.isSuccess());
+        }
+        return sheets;
+    }
+
+    private Path write(Workbook workbook, String name) throws IOException {
+        Sheet first = workbook.createSheet("first");
+        Row row = first.createRow(0);
+        row.createCell(0).setCellValue("x");
+        row.createCell(1);
+        first.addMergedRegion(new CellRangeAddress(0, 0, 0, 1));
+        first.createRow(1).createCell(0).setCellValue(1);
+        workbook.createSheet("empty");
+        workbook.createSheet("last").createRow(0).createCell(0).setCellValue("last");
+
+        Path file = folder.getRoot().toPath().resolve(name);
+        try (Workbook w = workbook; OutputStream out = Files.newOutputStream(file)) {
+            w.write(out);
+        }
+        return file;
+    }
+}
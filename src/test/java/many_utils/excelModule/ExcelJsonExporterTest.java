@@ -0,0 +1,87 @@
+package many_utils.excelModule;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+
+public class ExcelJsonExporterTest {
+
+    private static final String EXPECTED = "[{\"id\":\"\",\"name\":\"bob\",\"age\":\"30.0\"}]";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * 数据行首列为空时行数据从第二列开始，值仍按所在的列对应表头
+     */
+    @Test
+    public void leadingBlankCellKeepsColumnKeys() throws IOException {
+        for (String file : new String[]{write(new XSSFWorkbook(), "a.xlsx"), write(new HSSFWorkbook(), "a.xls")}) {
+            assertEquals(file, EXPECTED, export(file, ReadOptions.all()));
+            // 指定行范围：xlsx 流式读取，xls 构建工作簿读取
+            assertEquals(file, EXPECTED, export(file, ReadOptions.all().rows(0, 1)));
+        }
+    }
+
+    @Test
+    public void headerStartingAfterFirstColumn() throws IOException {
+        Workbook workbook = new XSSFWorkbook();
+        Sheet sheet = workbook.createSheet();
+        sheet.createRow(0).createCell(1).setCellValue("name");
+        Row row = sheet.createRow(1);
+        row.createCell(0).setCellValue("x");
+        row.createCell(1).setCellValue("bob");
+        String file = save(workbook, "b.xlsx");
+
+        assertEquals("[{\"A\":\"x\",\"name\":\"bob\"}]", export(file, ReadOptions.all()));
+    }
+
+    @Test
+    public void projectedColumnsFollowProjectionOrder() throws IOException {
+        String file = write(new XSSFWorkbook(), "c.xlsx");
+
+        String expected = "[{\"age\":\"30.0\",\"name\":\"bob\"}]";
+        assertEquals(expected, export(file, ReadOptions.all().headers("age", "name")));
+        assertEquals(expected, export(file, ReadOptions.all().columns(2, 1)));
+    }
+
+    private static String export(String file, ReadOptions options) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExcelJsonExporter.export(file, 0, options, ExcelJsonExporter.Layout.OBJECTS, out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private String write(Workbook workbook, String name) throws IOException {
+        Sheet sheet = workbook.createSheet();
+        Row header = sheet.createRow(0);
+        header.createCell(0).setCellValue("id");
+        header.createCell(1).setCellValue("name");
+        header.createCell(2).setCellValue("age");
+        Row row = sheet.createRow(1);
+        row.createCell(1).setCellValue("bob");
+        row.createCell(2).setCellValue(30);
+        return save(workbook, name);
+    }
+
+    private String save(Workbook workbook, String name) throws IOException {
+        Path file = folder.getRoot().toPath().resolve(name);
+        try (Workbook w = workbook; OutputStream out = Files.newOutputStream(file)) {
+            w.write(out);
+        }
+        return file.toString();
+    }
+}
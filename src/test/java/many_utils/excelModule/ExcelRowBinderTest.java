@@ -0,0 +1,92 @@
+package many_utils.excelModule;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ExcelRowBinderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public static class Person {
+        private String id;
+        private String name;
+        private int age;
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+    }
+
+    /**
+     * 数据行首列为空时，值仍按所在的列绑定到对应表头的字段
+     */
+    @Test
+    public void leadingBlankCellKeepsColumnFields() throws IOException {
+        for (String file : new String[]{write(new XSSFWorkbook(), "a.xlsx"), write(new HSSFWorkbook(), "a.xls")}) {
+            ExcelRowBinder<Person> binder = ExcelRowBinder.of(Person.class);
+            assertPerson(file, binder.read(file, 0));
+            try (Workbook workbook = WorkbookFactory.create(new File(file), null, true)) {
+                assertPerson(file, binder.bind(v -> ExcelPOIReaderUtil.visitSheet(workbook.getSheetAt(0), v)));
+            }
+        }
+    }
+
+    @Test
+    public void bindRowsByColumnIndex() {
+        List<List<String>> rows = Arrays.asList(
+                Arrays.asList("id", "name", "age"),
+                Arrays.asList("", "bob", "30"));
+        assertPerson("rows", ExcelRowBinder.of(Person.class).bindRows(rows));
+    }
+
+    private static void assertPerson(String message, List<Person> people) {
+        assertEquals(message, 1, people.size());
+        assertNull(message, people.get(0).id);
+        assertEquals(message, "bob", people.get(0).name);
+        assertEquals(message, 30, people.get(0).age);
+    }
+
+    private String write(Workbook workbook, String name) throws IOException {
+        Sheet sheet = workbook.createSheet();
+        Row header = sheet.createRow(0);
+        header.createCell(0).setCellValue("id");
+        header.createCell(1).setCellValue("name");
+        header.createCell(2).setCellValue("age");
+        Row row = sheet.createRow(1);
+        row.createCell(1).setCellValue("bob");
+        row.createCell(2).setCellValue(30);
+
+        Path file = folder.getRoot().toPath().resolve(name);
+        try (Workbook w = workbook; OutputStream out = Files.newOutputStream(file)) {
+            w.write(out);
+        }
+        return file.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package many_utils.excelModule;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SheetSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void snapshotMatchesRowReader() throws IOException {
+        Path source = write(folder.getRoot().toPath().resolve("a.xlsx"), "apple", "banana");
+        Path snapshotFile = folder.getRoot().toPath().resolve("a.snapshot");
+
+        SheetSnapshot snapshot = ExcelPOIReaderUtil.readExcelWithSnapshot(source.toString(), 0, snapshotFile);
+
+        assertEquals(ExcelPOIReaderUtil.readExcelWithMerge(source.toString(), 0), snapshot.asRows());
+        assertEquals("banana", snapshot.getString(0, 1));
+        assertTrue(snapshot.isUpToDate(source, 0));
+        assertTrue(SheetSnapshot.isUpToDate(snapshotFile, source, 0));
+        assertFalse(SheetSnapshot.isUpToDate(snapshotFile, source, 1));
+    }
+
+    /**
+     * 源文件换成大小相同、修改时间被保留的另一份内容，只比较大小和修改时间时会误判为最新
+     */
+    @Test
+    public void sameSizeAndTimeWithDifferentContentIsStale() throws IOException {
+        Path source = write(folder.getRoot().toPath().resolve("a.xlsx"), "apple", "banana");
+        Path snapshotFile = folder.getRoot().toPath().resolve("a.snapshot");
+        ExcelPOIReaderUtil.readExcelWithSnapshot(source.toString(), 0, snapshotFile);
+        FileTime modified = Files.getLastModifiedTime(source);
+        long size = Files.size(source);
+
+        byte[] bytes = Files.readAllBytes(source);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(source, bytes);
+        Files.setLastModifiedTime(source, modified);
+
+        assertEquals(size, Files.size(source));
+        assertFalse(SheetSnapshot.isUpToDate(snapshotFile, source, 0));
+    }
+
+    @Test
+    public void staleSnapshotIsRegenerated() throws IOException {
+        Path source = write(folder.getRoot().toPath().resolve("a.xlsx"), "apple", "banana");
+        Path snapshotFile = folder.getRoot().toPath().resolve("a.snapshot");
+        ExcelPOIReaderUtil.readExcelWithSnapshot(source.toString(), 0, snapshotFile);
+
+        write(source, "cherry", "date");
+        SheetSnapshot snapshot = ExcelPOIReaderUtil.readExcelWithSnapshot(source.toString(), 0, snapshotFile);
+
+        assertEquals(Arrays.asList("cherry", "date"), snapshot.getRow(0));
+    }
+
+    private static Path write(Path file, String... values) throws IOException {
+        try (Workbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet();
+            Row row = sheet.createRow(0);
+            for (int i = 0; i < values.length; i++) {
+                row.createCell(i).setCellValue(values[i]);
+            }
+            workbook.write(out);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,90 @@
+package many_utils.excelModule;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class StringDeduplicatorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * 两个工作簿的共享字符串下标相同、内容不同，复用同一个去重器不能串用前一个工作簿的值
+     */
+    @Test
+    public void reuseAcrossWorkbooks() throws IOException {
+        StringDeduplicator deduplicator = new StringDeduplicator();
+        try (Workbook first = workbook(new XSSFWorkbook(), "apple", "banana");
+             Workbook second = workbook(new XSSFWorkbook(), "cherry", "date")) {
+            assertEquals(Collections.singletonList(Arrays.asList("apple", "banana")),
+                    ExcelPOIReaderUtil.readSheetWithMerge(first.getSheetAt(0), deduplicator));
+            assertEquals(Collections.singletonList(Arrays.asList("cherry", "date")),
+                    ExcelPOIReaderUtil.readSheetWithMerge(second.getSheetAt(0), deduplicator));
+        }
+    }
+
+    @Test
+    public void reuseAcrossStreamingReads() throws IOException {
+        StringDeduplicator deduplicator = new StringDeduplicator();
+        for (String suffix : new String[]{".xlsx", ".xls"}) {
+            Workbook empty = ".xlsx".equals(suffix) ? new XSSFWorkbook() : new HSSFWorkbook();
+            Workbook other = ".xlsx".equals(suffix) ? new XSSFWorkbook() : new HSSFWorkbook();
+            String first = write(workbook(empty, "apple", "banana"), "first" + suffix);
+            String second = write(workbook(other, "cherry", "date"), "second" + suffix);
+
+            assertEquals(Collections.singletonList(Arrays.asList("apple", "banana")), readStreaming(first, deduplicator));
+            assertEquals(Collections.singletonList(Arrays.asList("cherry", "date")), readStreaming(second, deduplicator));
+        }
+    }
+
+    @Test
+    public void sharedStringsHitWithinWorkbook() throws IOException {
+        StringDeduplicator deduplicator = new StringDeduplicator();
+        try (Workbook workbook = workbook(new XSSFWorkbook(), "same", "same")) {
+            List<List<String>> rows = ExcelPOIReaderUtil.readSheetWithMerge(workbook.getSheetAt(0), deduplicator);
+            assertEquals(1, deduplicator.getHits());
+            assertEquals(rows.get(0).get(0), rows.get(0).get(1));
+        }
+    }
+
+    private static Workbook workbook(Workbook workbook, String... values) {
+        Sheet sheet = workbook.createSheet();
+        Row row = sheet.createRow(0);
+        for (int i = 0; i < values.length; i++) {
+            row.createCell(i).setCellValue(values[i]);
+        }
+        return workbook;
+    }
+
+    private String write(Workbook workbook, String name) throws IOException {
+        File file = folder.newFile(name);
+        try (Workbook w = workbook; OutputStream out = new FileOutputStream(file)) {
+            w.write(out);
+        }
+        return file.getPath();
+    }
+
+    private static List<List<String>> readStreaming(String path, StringDeduplicator deduplicator) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        ExcelPOIReaderUtil.readExcelWithMergeStreaming(path, 0, (rowIndex, rowData) -> rows.add(new ArrayList<>(rowData)),
+                deduplicator);
+        return rows;
+    }
+}